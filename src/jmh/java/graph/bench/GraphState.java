@@ -0,0 +1,48 @@
+package graph.bench;
+
+import graph.BasicMetrics;
+import graph.CSRGraph;
+import graph.DatasetGenerator;
+import graph.GraphData;
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark input built once per trial from {@link DatasetGenerator}: graph size, average
+ * out-degree (density) and SCC structure are JMH parameters. Later pipeline stages are
+ * precomputed so each benchmark measures only its own phase.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+    @Param({"1000", "10000", "100000"})
+    public int nodes;
+
+    @Param({"2", "8"})
+    public int degree;
+
+    /** acyclic: no cycles; mixed: DAG with embedded small cycles; cyclic: one large SCC. */
+    @Param({"acyclic", "mixed", "cyclic"})
+    public String structure;
+
+    public CSRGraph graph;
+    /** Already run, so its cached components let condensation be measured on its own. */
+    public SCC scc;
+    public SCC.Components components;
+    public CSRGraph condensation;
+    public int[] topoOrder;
+    /** Path source: the first component in topological order, so the sweeps reach most of the DAG. */
+    public int source;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GraphData data = DatasetGenerator.generate(structure, nodes, nodes * degree, 42);
+        graph = data.buildCSRGraph();
+        scc = new SCC(graph, new BasicMetrics());
+        components = scc.findComponents();
+        condensation = Condensation.build(graph, components);
+        topoOrder = new TopologicalSort(new BasicMetrics()).kahnTopoSort(condensation);
+        source = topoOrder[0];
+    }
+}
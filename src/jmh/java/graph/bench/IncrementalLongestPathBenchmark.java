@@ -0,0 +1,61 @@
+package graph.bench;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.IncrementalLongestPath;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What-if weight changes on a large schedule DAG: one incremental update versus a full
+ * {@link DAGShortestPath#longestPathLong} recomputation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Thread)
+public class IncrementalLongestPathBenchmark {
+    @Param({"1000000"})
+    public int nodes;
+
+    @Param({"4"})
+    public int degree;
+
+    private CSRGraph dag;
+    private int[] topoOrder;
+    private IncrementalLongestPath incremental;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Edges to nearby later tasks, like a long chain of short dependency windows
+        int m = nodes * degree;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(nodes - 1);
+            us[i] = u;
+            vs[i] = Math.min(nodes - 1, u + 1 + random.nextInt(64));
+            ws[i] = 1 + random.nextInt(1000);
+        }
+        dag = CSRGraph.fromEdges(nodes, us, vs, ws, m);
+        topoOrder = new TopologicalSort(Metrics.NOOP).kahnTopoSort(dag);
+        incremental = new IncrementalLongestPath(dag, topoOrder, topoOrder[0], Metrics.NOOP);
+    }
+
+    @Benchmark
+    public long incrementalUpdate() {
+        return incremental.setWeight(random.nextInt(dag.edgeCount()), 1 + random.nextInt(1000));
+    }
+
+    @Benchmark
+    public long fullRecomputation() {
+        return new DAGShortestPath(Metrics.NOOP).longestPathLong(dag, topoOrder, topoOrder[0]).criticalPathLength;
+    }
+}
@@ -0,0 +1,75 @@
+package graph.bench;
+
+import graph.BasicMetrics;
+import graph.CSRGraph;
+import graph.Metrics;
+import graph.scc.SCC;
+import graph.dagsp.DAGShortestPath;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of operation counting in the hot loops: {@code basic} counts into a {@link BasicMetrics},
+ * {@code noop} uses {@link Metrics#NOOP}. {@link #longestPathPerStepCounting} keeps the former
+ * style of one {@link Metrics#incrementOperationCount()} call per loop step as a reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class MetricsOverheadBenchmark {
+
+    @State(Scope.Thread)
+    public static class MetricsState {
+        @Param({"basic", "noop"})
+        public String metrics;
+
+        public Metrics instance;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            instance = metrics.equals("noop") ? Metrics.NOOP : new BasicMetrics();
+        }
+    }
+
+    @Benchmark
+    public SCC.Components sccFindComponents(GraphState state, MetricsState metrics) {
+        return new SCC(state.graph, metrics.instance).findComponents();
+    }
+
+    @Benchmark
+    public int[] kahnTopoSort(GraphState state, MetricsState metrics) {
+        return new TopologicalSort(metrics.instance).kahnTopoSort(state.condensation);
+    }
+
+    @Benchmark
+    public DAGShortestPath.Result longestPath(GraphState state, MetricsState metrics) {
+        return new DAGShortestPath(metrics.instance).longestPath(state.condensation, state.topoOrder, state.source);
+    }
+
+    @Benchmark
+    public int[] longestPathPerStepCounting(GraphState state, MetricsState metrics) {
+        CSRGraph graph = state.condensation;
+        Metrics counter = metrics.instance;
+        int[] dist = new int[graph.n];
+        Arrays.fill(dist, Integer.MIN_VALUE);
+        dist[state.source] = 0;
+        for (int u : state.topoOrder) {
+            counter.incrementOperationCount();
+            int du = dist[u];
+            if (du != Integer.MIN_VALUE) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    counter.incrementOperationCount();
+                    int v = graph.targets[e];
+                    if (du + graph.weights[e] > dist[v]) {
+                        dist[v] = du + graph.weights[e];
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,128 @@
+package graph.bench;
+
+import graph.BasicMetrics;
+import graph.CSRGraph;
+import graph.scc.ParallelSCC;
+import graph.scc.SCC;
+import java.util.*;
+
+/**
+ * Scaling benchmark for {@link ParallelSCC} across thread counts, with sequential Tarjan as baseline.
+ * Every parallel run is checked, outside the timing, to find exactly Tarjan's partition.
+ *
+ * Usage: java graph.bench.ParallelSCCBenchmark [--edges=1000000,10000000,100000000]
+ *        [--threads=1,2,4,8,...] [--repeat=3] [--degree=8]
+ *
+ * Graphs are generated in memory with a fixed out-degree: mostly short forward edges with a
+ * fraction of back edges, which yields a mix of singleton, small and large components.
+ * The 10^8-edge size needs roughly 3 GB of heap (-Xmx4g).
+ */
+public class ParallelSCCBenchmark {
+    public static void main(String[] args) {
+        long[] edgeCounts = {1_000_000L, 10_000_000L, 100_000_000L};
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = defaultThreadCounts(cores);
+        int repeat = 3;
+        int degree = 8;
+
+        for (String arg : args) {
+            if (arg.startsWith("--edges=")) {
+                edgeCounts = Arrays.stream(arg.substring(8).split(",")).mapToLong(Long::parseLong).toArray();
+            } else if (arg.startsWith("--threads=")) {
+                threadCounts = Arrays.stream(arg.substring(10).split(",")).mapToInt(Integer::parseInt).toArray();
+            } else if (arg.startsWith("--repeat=")) {
+                repeat = Integer.parseInt(arg.substring(9));
+            } else if (arg.startsWith("--degree=")) {
+                degree = Integer.parseInt(arg.substring(9));
+            } else {
+                System.err.println("Unknown option: " + arg);
+                return;
+            }
+        }
+
+        System.out.println("=== Parallel SCC scaling benchmark (" + cores + " cores) ===");
+        System.out.println("edges,nodes,components,variant,threads,best_ms,speedup_vs_tarjan,speedup_vs_1_thread");
+        for (long edges : edgeCounts) {
+            CSRGraph graph = generate((int) (edges / degree), degree, 42);
+
+            long tarjanNanos = Long.MAX_VALUE;
+            SCC.Components expected = null;
+            for (int r = 0; r < repeat; r++) {
+                long start = System.nanoTime();
+                expected = new SCC(graph, new BasicMetrics()).findComponents();
+                tarjanNanos = Math.min(tarjanNanos, System.nanoTime() - start);
+            }
+            int components = expected.count;
+            int[] expectedMembers = smallestMember(expected);
+            System.out.printf("%d,%d,%d,tarjan,1,%.1f,1.00,-%n",
+                    graph.edgeCount(), graph.n, components, tarjanNanos / 1e6);
+
+            long oneThreadNanos = -1;
+            for (int threads : threadCounts) {
+                long best = Long.MAX_VALUE;
+                for (int r = 0; r < repeat; r++) {
+                    long start = System.nanoTime();
+                    SCC.Components actual = new ParallelSCC(graph, threads, new BasicMetrics()).findComponents();
+                    best = Math.min(best, System.nanoTime() - start);
+                    if (actual.count != components) {
+                        throw new IllegalStateException("Parallel SCC found " + actual.count +
+                                " components, Tarjan found " + components);
+                    }
+                    if (!Arrays.equals(smallestMember(actual), expectedMembers)) {
+                        throw new IllegalStateException("Parallel SCC with " + threads +
+                                " threads found a different partition than Tarjan");
+                    }
+                }
+                if (threads == 1) {
+                    oneThreadNanos = best;
+                }
+                System.out.printf("%d,%d,%d,parallel,%d,%.1f,%.2f,%s%n",
+                        graph.edgeCount(), graph.n, components, threads, best / 1e6,
+                        (double) tarjanNanos / best,
+                        oneThreadNanos > 0 ? String.format("%.2f", (double) oneThreadNanos / best) : "-");
+            }
+        }
+    }
+
+    /** The smallest node of each node's component, which identifies a partition whatever its numbering. */
+    private static int[] smallestMember(SCC.Components components) {
+        int[] min = new int[components.count];
+        Arrays.fill(min, Integer.MAX_VALUE);
+        for (int v = 0; v < components.compId.length; v++) {
+            min[components.compId[v]] = Math.min(min[components.compId[v]], v);
+        }
+        int[] result = new int[components.compId.length];
+        for (int v = 0; v < result.length; v++) {
+            result[v] = min[components.compId[v]];
+        }
+        return result;
+    }
+
+    private static int[] defaultThreadCounts(int cores) {
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            counts.add(t);
+        }
+        counts.add(cores);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static CSRGraph generate(int n, int degree, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int m = n * degree;
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        Arrays.fill(weights, 1);
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + degree;
+            for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+                // 1 in 16 edges points anywhere, closing cycles; the rest point a short way forward
+                targets[j] = random.nextInt(16) == 0
+                        ? random.nextInt(n)
+                        : Math.min(n - 1, u + 1 + random.nextInt(64));
+            }
+        }
+        return new CSRGraph(n, offsets, targets, weights);
+    }
+}
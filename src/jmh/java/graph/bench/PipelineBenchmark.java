@@ -0,0 +1,87 @@
+package graph.bench;
+
+import graph.BasicMetrics;
+import graph.CSRGraph;
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import graph.dagsp.CriticalPathMethod;
+import graph.dagsp.DAGShortestPath;
+import graph.topo.ParallelTopologicalSort;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase benchmarks of the analysis pipeline. Every invocation builds a fresh algorithm
+ * instance, since SCC caches its result; the condensation benchmarks reuse the components
+ * found during setup so they time only the condensation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class PipelineBenchmark {
+
+    @Benchmark
+    public SCC.Components sccFindComponents(GraphState state) {
+        return new SCC(state.graph, new BasicMetrics()).findComponents();
+    }
+
+    @Benchmark
+    public List<List<Integer>> sccFindSCCs(GraphState state) {
+        return new SCC(state.graph, new BasicMetrics()).findSCCs();
+    }
+
+    @Benchmark
+    public List<List<Integer>> sccGetCondensationGraph(GraphState state) {
+        return state.scc.getCondensationGraph();
+    }
+
+    @Benchmark
+    public CSRGraph condensationBuild(GraphState state) {
+        return Condensation.build(state.graph, state.components);
+    }
+
+    @Benchmark
+    public int[] kahnTopoSort(GraphState state) {
+        return new TopologicalSort(new BasicMetrics()).kahnTopoSort(state.condensation);
+    }
+
+    @Benchmark
+    public ParallelTopologicalSort.Waves parallelTopoSort(GraphState state) {
+        return new ParallelTopologicalSort(state.condensation, Runtime.getRuntime().availableProcessors(),
+                new BasicMetrics()).sort();
+    }
+
+    @Benchmark
+    public DAGShortestPath.Result shortestPath(GraphState state) {
+        return new DAGShortestPath(new BasicMetrics()).shortestPath(state.condensation, state.topoOrder, state.source);
+    }
+
+    @Benchmark
+    public DAGShortestPath.Result longestPath(GraphState state) {
+        return new DAGShortestPath(new BasicMetrics()).longestPath(state.condensation, state.topoOrder, state.source);
+    }
+
+    @Benchmark
+    public DAGShortestPath.LongResult shortestPathLong(GraphState state) {
+        return new DAGShortestPath(new BasicMetrics()).shortestPathLong(state.condensation, state.topoOrder, state.source);
+    }
+
+    @Benchmark
+    public DAGShortestPath.LongResult longestPathLong(GraphState state) {
+        return new DAGShortestPath(new BasicMetrics()).longestPathLong(state.condensation, state.topoOrder, state.source);
+    }
+
+    @Benchmark
+    public DAGShortestPath.PathBounds shortestAndLongestPaths(GraphState state) {
+        return new DAGShortestPath(new BasicMetrics()).shortestAndLongestPaths(state.condensation, state.topoOrder, state.source);
+    }
+
+    @Benchmark
+    public CriticalPathMethod.Schedule criticalPathSchedule(GraphState state) {
+        return new CriticalPathMethod(new BasicMetrics()).schedule(state.condensation, state.topoOrder);
+    }
+}
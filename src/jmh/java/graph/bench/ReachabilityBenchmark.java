@@ -0,0 +1,88 @@
+package graph.bench;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import graph.gen.SyntheticGraphGenerator;
+import graph.reach.ReachabilityIndex;
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reachability index build time and query latency on synthetic graphs with millions of nodes.
+ * Random pairs are mostly answered by the topological-order check; forward pairs (smaller id
+ * first, so usually earlier in the layered order) exercise the interval labels and the search.
+ * The index size is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+@State(Scope.Benchmark)
+public class ReachabilityBenchmark {
+    private static final int PAIRS = 1 << 16;
+
+    @Param({"1000000", "4000000"})
+    public int nodes;
+
+    @Param({"4"})
+    public int degree;
+
+    private CSRGraph graph;
+    private SCC.Components components;
+    private CSRGraph condensation;
+    private int[] topoOrder;
+    private ReachabilityIndex index;
+    private final int[] randomPairs = new int[2 * PAIRS];
+    private final int[] forwardPairs = new int[2 * PAIRS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        SyntheticGraphGenerator.Config config = new SyntheticGraphGenerator.Config();
+        config.nodes = nodes;
+        config.edges = (long) nodes * degree;
+        config.layers = 1000;
+        graph = new SyntheticGraphGenerator(config).generate().graph;
+        components = new SCC(graph, Metrics.NOOP).findComponents();
+        condensation = Condensation.build(graph, components);
+        topoOrder = new TopologicalSort(Metrics.NOOP).kahnTopoSort(condensation);
+        index = new ReachabilityIndex(components.compId, condensation, topoOrder, Metrics.NOOP);
+        System.out.printf("%n%d nodes, %d components, index %.1f MB%n", nodes, index.componentCount(),
+                index.memoryBytes() / 1e6);
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < PAIRS; i++) {
+            randomPairs[2 * i] = random.nextInt(nodes);
+            randomPairs[2 * i + 1] = random.nextInt(nodes);
+            int a = random.nextInt(nodes);
+            int b = random.nextInt(nodes);
+            forwardPairs[2 * i] = Math.min(a, b);
+            forwardPairs[2 * i + 1] = Math.max(a, b);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ReachabilityIndex build() {
+        return new ReachabilityIndex(components.compId, condensation, topoOrder, Metrics.NOOP);
+    }
+
+    @Benchmark
+    public boolean randomQuery() {
+        int i = 2 * (next++ & (PAIRS - 1));
+        return index.reaches(randomPairs[i], randomPairs[i + 1]);
+    }
+
+    @Benchmark
+    public boolean forwardQuery() {
+        int i = 2 * (next++ & (PAIRS - 1));
+        return index.reaches(forwardPairs[i], forwardPairs[i + 1]);
+    }
+}
@@ -0,0 +1,613 @@
+package graph;
+
+import graph.dagsp.CriticalPathMethod;
+import graph.dagsp.DAGShortestPath;
+import graph.io.GraphInput;
+import graph.reach.ReachabilityIndex;
+import graph.scc.SCC;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Long-running analysis daemon. Serves analysis requests over HTTP on the loopback interface,
+ * keeping analyzed graphs in memory so that repeated questions about the same schedule skip
+ * JVM start-up, loading and the SCC, topological sort and path phases.
+ *
+ * Every endpoint takes the graph file as {@code file=}, and answers in JSON:
+ * <ul>
+ *   <li>{@code /analyze} — sizes, phase times and the critical path</li>
+ *   <li>{@code /critical-path} — the longest path from the source's component</li>
+ *   <li>{@code /components} — component statistics, or with {@code node=} or {@code component=} one component's members</li>
+ *   <li>{@code /distances?to=v[&from=u]} — shortest and longest distance and path between two nodes' components</li>
+ *   <li>{@code /schedule} — project duration and zero-slack components, or with {@code node=} a task's CPM schedule</li>
+ *   <li>{@code /reaches?from=u&to=v} — whether u reaches v, through a reachability index built on first use</li>
+ *   <li>{@code /evict} — drops the graph from the cache; {@code /stats} takes no file and reports on the cache</li>
+ * </ul>
+ *
+ * Analyses are cached per file, and a cached analysis is reused for as long as the file's size
+ * and modification time are unchanged. The cache is bounded by the estimated size of the arrays
+ * it holds and evicts the least recently used graphs first. Concurrent requests for a graph that
+ * is not cached yet wait for a single analysis.
+ */
+public class AnalysisServer {
+    private static final long DEFAULT_CACHE_MB = 1024;
+
+    /** One analyzed graph, with the file state it was computed from. */
+    static final class Entry {
+        final Path path;
+        final long fileSize;
+        final long modified;
+        final Main.Analysis analysis;
+        final long analysisNanos;
+        private volatile ReachabilityIndex reachability;
+        /** Size counted in the cache total while cached; guarded by the cache. */
+        private long accountedBytes;
+
+        Entry(Path path, long fileSize, long modified, Main.Analysis analysis, long analysisNanos) {
+            this.path = path;
+            this.fileSize = fileSize;
+            this.modified = modified;
+            this.analysis = analysis;
+            this.analysisNanos = analysisNanos;
+        }
+
+        ReachabilityIndex reachability() {
+            ReachabilityIndex index = reachability;
+            if (index == null) {
+                synchronized (this) {
+                    index = reachability;
+                    if (index == null) {
+                        index = new ReachabilityIndex(analysis.components.compId, analysis.condensation,
+                                analysis.topoOrder, Metrics.NOOP);
+                        reachability = index;
+                    }
+                }
+            }
+            return index;
+        }
+
+        long estimatedBytes() {
+            ReachabilityIndex index = reachability;
+            return estimateBytes(analysis) + (index == null ? 0 : index.memoryBytes());
+        }
+    }
+
+    /** A cache lookup, telling whether the analysis was already in memory. */
+    static final class Lookup {
+        final Entry entry;
+        final boolean cached;
+
+        Lookup(Entry entry, boolean cached) {
+            this.entry = entry;
+            this.cached = cached;
+        }
+    }
+
+    /**
+     * Size-bounded LRU cache of analyses, keyed by absolute file path.
+     */
+    static final class AnalysisCache {
+        private final Main.Options options;
+        private final long capacityBytes;
+        private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<Path, FutureTask<Entry>> loading = new HashMap<>();
+        private long bytes;
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        AnalysisCache(Main.Options options, long capacityBytes) {
+            this.options = options;
+            this.capacityBytes = capacityBytes;
+        }
+
+        Lookup get(Path file) throws IOException {
+            Path path = file.toAbsolutePath().normalize();
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+
+            FutureTask<Entry> task;
+            boolean owner = false;
+            synchronized (this) {
+                Entry entry = entries.get(path);
+                if (entry != null && entry.fileSize == size && entry.modified == modified) {
+                    hits++;
+                    return new Lookup(entry, true);
+                }
+                task = loading.get(path);
+                if (task == null) {
+                    task = new FutureTask<>(() -> analyze(path, size, modified));
+                    loading.put(path, task);
+                    owner = true;
+                    misses++;
+                }
+            }
+
+            if (owner) {
+                task.run();
+            }
+            try {
+                Entry entry = task.get();
+                if (owner) {
+                    put(entry);
+                }
+                return new Lookup(entry, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while analyzing " + path);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IOException(cause);
+            } finally {
+                if (owner) {
+                    synchronized (this) {
+                        loading.remove(path);
+                    }
+                }
+            }
+        }
+
+        private Entry analyze(Path path, long size, long modified) throws IOException {
+            long start = System.nanoTime();
+            PhaseMetrics metrics = new PhaseMetrics(options.countOperations);
+            PhaseMetrics.Timer timer = metrics.start(PhaseMetrics.Phase.LOAD);
+            GraphInput input = GraphInput.load(path);
+            timer.stop();
+            Main.Analysis analysis = Main.analyze(input, options, metrics,
+                    new PrintStream(OutputStream.nullOutputStream()));
+            return new Entry(path, size, modified, analysis, System.nanoTime() - start);
+        }
+
+        private synchronized void put(Entry entry) {
+            Entry previous = entries.remove(entry.path);
+            if (previous != null) {
+                bytes -= previous.accountedBytes;
+            }
+            long size = entry.estimatedBytes();
+            if (size > capacityBytes) {
+                // Too large to keep; it is still served to the requests waiting for it
+                return;
+            }
+            entries.put(entry.path, entry);
+            entry.accountedBytes = size;
+            bytes += size;
+            evict();
+        }
+
+        /** Accounts for memory an entry gained after it was cached, such as a reachability index. */
+        synchronized void grew(Entry entry) {
+            if (entries.get(entry.path) == entry) {
+                long size = entry.estimatedBytes();
+                bytes += size - entry.accountedBytes;
+                entry.accountedBytes = size;
+                evict();
+            }
+        }
+
+        synchronized boolean remove(Path file) {
+            Entry entry = entries.remove(file.toAbsolutePath().normalize());
+            if (entry != null) {
+                bytes -= entry.accountedBytes;
+            }
+            return entry != null;
+        }
+
+        private void evict() {
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > capacityBytes && eldest.hasNext()) {
+                bytes -= eldest.next().accountedBytes;
+                eldest.remove();
+                evictions++;
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        synchronized long hits() {
+            return hits;
+        }
+
+        synchronized long misses() {
+            return misses;
+        }
+
+        synchronized long evictions() {
+            return evictions;
+        }
+
+        synchronized List<Entry> entries() {
+            return new ArrayList<>(entries.values());
+        }
+    }
+
+    /**
+     * Approximate heap size of the arrays an analysis holds: the input graph, the components,
+     * the condensation, the topological order or waves, the path and schedule arrays and any
+     * distance matrices.
+     */
+    static long estimateBytes(Main.Analysis analysis) {
+        long n = analysis.input.n;
+        long m = analysis.input.edgeCount();
+        long c = analysis.components.count;
+        long dagEdges = analysis.condensation.offsets[analysis.condensation.n];
+        long bytes = 4 * (n + 1) + 8 * m;
+        bytes += 8 * n + 4 * (c + 1);
+        bytes += 4 * (c + 1) + 8 * dagEdges;
+        bytes += analysis.waves != null ? 8 * c + 4 : 4 * c;
+        bytes += 24 * c;
+        bytes += 32 * c + 4L * analysis.schedule.criticalTasks.length;
+        if (analysis.shortestMatrix != null) {
+            bytes += 8L * analysis.shortestMatrix.distances.length;
+        }
+        if (analysis.longestMatrix != null) {
+            bytes += 8L * analysis.longestMatrix.distances.length;
+        }
+        return bytes;
+    }
+
+    private final AnalysisCache cache;
+    private final int threads;
+    private final PrintStream log;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    AnalysisServer(Main.Options options, long capacityBytes, int threads, PrintStream log) {
+        this.cache = new AnalysisCache(options, capacityBytes);
+        this.threads = threads;
+        this.log = log;
+    }
+
+    AnalysisCache cache() {
+        return cache;
+    }
+
+    /**
+     * Starts serving on the loopback interface; port 0 picks a free port.
+     *
+     * @return the port the server listens on
+     */
+    int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        long cacheMb = DEFAULT_CACHE_MB;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> mainArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--cache-mb=")) {
+                cacheMb = Long.parseLong(arg.substring("--cache-mb=".length()));
+            } else if (arg.startsWith("--server-threads=")) {
+                threads = Integer.parseInt(arg.substring("--server-threads=".length()));
+            } else {
+                mainArgs.add(arg);
+            }
+        }
+        Main.Options options = Main.Options.parse(mainArgs.toArray(new String[0]), 0);
+
+        AnalysisServer server = new AnalysisServer(options, cacheMb << 20, threads, System.out);
+        int bound = server.start(port);
+        System.out.println("Analysis server listening on http://localhost:" + bound
+                + "/ (cache " + cacheMb + " MB, " + threads + " threads)");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        int status = 200;
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            try (JsonWriter out = new JsonWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+                respond(exchange.getRequestURI().getPath(), query, out);
+            }
+        } catch (NoSuchFileException e) {
+            status = 404;
+            body = error("File not found: " + e.getMessage());
+        } catch (FileNotFoundException e) {
+            status = 404;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (Exception e) {
+            status = 500;
+            body = error(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            body.writeTo(out);
+        }
+        log.printf(Locale.ROOT, "%s %s %d %.3f ms%n", exchange.getRequestMethod(), exchange.getRequestURI(),
+                status, (System.nanoTime() - start) / 1e6);
+    }
+
+    private void respond(String endpoint, Map<String, String> query, JsonWriter out) throws IOException {
+        if (endpoint.equals("/stats")) {
+            writeStats(out);
+            return;
+        }
+        String file = query.get("file");
+        if (file == null) {
+            throw new IllegalArgumentException("Missing file parameter");
+        }
+        if (endpoint.equals("/evict")) {
+            out.beginObject();
+            out.name("file").value(file);
+            out.name("evicted").value(cache.remove(Paths.get(file)));
+            out.endObject();
+            return;
+        }
+
+        Lookup lookup;
+        switch (endpoint) {
+            case "/analyze":
+            case "/critical-path":
+            case "/components":
+            case "/distances":
+            case "/schedule":
+            case "/reaches":
+                lookup = cache.get(Paths.get(file));
+                break;
+            default:
+                throw new FileNotFoundException("Unknown endpoint: " + endpoint);
+        }
+        Main.Analysis analysis = lookup.entry.analysis;
+
+        out.beginObject();
+        out.name("file").value(file);
+        out.name("cached").value(lookup.cached);
+        switch (endpoint) {
+            case "/analyze":
+                writeSummary(lookup.entry, out);
+                break;
+            case "/critical-path":
+                writeCriticalPath(analysis, out);
+                break;
+            case "/components":
+                writeComponents(analysis, query, out);
+                break;
+            case "/distances":
+                writeDistances(analysis, query, out);
+                break;
+            case "/schedule":
+                writeSchedule(analysis, query, out);
+                break;
+            default:
+                writeReaches(lookup.entry, query, out);
+                break;
+        }
+        out.endObject();
+    }
+
+    private static void writeSummary(Entry entry, JsonWriter out) throws IOException {
+        Main.Analysis analysis = entry.analysis;
+        out.name("nodes").value(analysis.input.n);
+        out.name("edges").value(analysis.input.edgeCount());
+        out.name("scc_count").value(analysis.components.count);
+        out.name("condensation_edges").value(analysis.condensation.offsets[analysis.condensation.n]);
+        if (analysis.waves != null) {
+            out.name("waves").value(analysis.waves.count());
+        }
+        out.name("analysis_ms").value(entry.analysisNanos / 1e6);
+        out.name("phase_ms");
+        out.beginObject();
+        for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+            out.name(phase.label).value(analysis.metrics.getTimeNanos(phase) / 1e6);
+        }
+        out.endObject();
+        writeCriticalPath(analysis, out);
+    }
+
+    private static void writeCriticalPath(Main.Analysis analysis, JsonWriter out) throws IOException {
+        out.name("source_component").value(analysis.source);
+        out.name("critical_path_length").value(analysis.longest.criticalPathLength);
+        out.name("critical_path");
+        writeArray(out, analysis.longest.criticalPath);
+    }
+
+    private static void writeComponents(Main.Analysis analysis, Map<String, String> query, JsonWriter out)
+            throws IOException {
+        SCC.Components components = analysis.components;
+        int component;
+        if (query.containsKey("node")) {
+            int node = nodeParameter(analysis, query, "node");
+            out.name("node").value(node);
+            component = components.compId[node];
+        } else if (query.containsKey("component")) {
+            component = intParameter(query, "component");
+            if (component < 0 || component >= components.count) {
+                throw new IllegalArgumentException("Component " + component + " is outside 0.." + (components.count - 1));
+            }
+        } else {
+            out.name("count").value(components.count);
+            out.name("largest").value(components.largestSize());
+            out.name("smallest").value(components.smallestSize());
+            out.name("average").value(components.averageSize());
+            return;
+        }
+        out.name("component").value(component);
+        out.name("size").value(components.size(component));
+        out.name("members");
+        out.beginArray();
+        for (int i = components.offsets[component]; i < components.offsets[component + 1]; i++) {
+            out.value(components.nodes[i]);
+        }
+        out.endArray();
+    }
+
+    /**
+     * Distances from the source's component come from the cached results; from any other node
+     * they are computed with one sweep over the cached condensation and topological order.
+     */
+    private static void writeDistances(Main.Analysis analysis, Map<String, String> query, JsonWriter out)
+            throws IOException {
+        int to = analysis.components.compId[nodeParameter(analysis, query, "to")];
+        int from = analysis.source;
+        DAGShortestPath.LongResult shortest = analysis.shortest;
+        DAGShortestPath.LongResult longest = analysis.longest;
+        if (query.containsKey("from")) {
+            from = analysis.components.compId[nodeParameter(analysis, query, "from")];
+            if (from != analysis.source) {
+                DAGShortestPath.PathBounds bounds = new DAGShortestPath(Metrics.NOOP)
+                        .shortestAndLongestPaths(analysis.condensation, analysis.topoOrder, from);
+                shortest = bounds.shortest();
+                longest = bounds.longest();
+            }
+        }
+
+        out.name("from_component").value(from);
+        out.name("to_component").value(to);
+        out.name("reachable").value(shortest.isReached(to));
+        if (shortest.isReached(to)) {
+            out.name("shortest").value(shortest.distances[to]);
+            out.name("shortest_path");
+            writeArray(out, shortest.pathTree().path(to));
+            out.name("longest").value(longest.distances[to]);
+            out.name("longest_path");
+            writeArray(out, longest.pathTree().path(to));
+        }
+    }
+
+    private static void writeSchedule(Main.Analysis analysis, Map<String, String> query, JsonWriter out)
+            throws IOException {
+        CriticalPathMethod.Schedule schedule = analysis.schedule;
+        if (!query.containsKey("node")) {
+            out.name("project_duration").value(schedule.projectDuration);
+            out.name("zero_slack_components");
+            writeArray(out, schedule.criticalTasks);
+            return;
+        }
+        int node = nodeParameter(analysis, query, "node");
+        int component = analysis.components.compId[node];
+        out.name("node").value(node);
+        out.name("component").value(component);
+        out.name("earliest_start").value(schedule.earliestStart[component]);
+        out.name("latest_start").value(schedule.latestStart[component]);
+        out.name("total_slack").value(schedule.totalSlack[component]);
+        out.name("free_slack").value(schedule.freeSlack[component]);
+        out.name("critical").value(schedule.isCritical(component));
+    }
+
+    private void writeReaches(Entry entry, Map<String, String> query, JsonWriter out) throws IOException {
+        int from = nodeParameter(entry.analysis, query, "from");
+        int to = nodeParameter(entry.analysis, query, "to");
+        boolean built = entry.reachability != null;
+        ReachabilityIndex index = entry.reachability();
+        if (!built) {
+            cache.grew(entry);
+        }
+        out.name("from").value(from);
+        out.name("to").value(to);
+        out.name("reaches").value(index.reaches(from, to));
+    }
+
+    private void writeStats(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("entries").value(cache.size());
+        out.name("bytes").value(cache.bytes());
+        out.name("capacity_bytes").value(cache.capacityBytes);
+        out.name("hits").value(cache.hits());
+        out.name("misses").value(cache.misses());
+        out.name("evictions").value(cache.evictions());
+        out.name("graphs");
+        out.beginArray();
+        for (Entry entry : cache.entries()) {
+            out.beginObject();
+            out.name("file").value(entry.path.toString());
+            out.name("nodes").value(entry.analysis.input.n);
+            out.name("bytes").value(entry.accountedBytes);
+            out.name("analysis_ms").value(entry.analysisNanos / 1e6);
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    private static void writeArray(JsonWriter out, int[] values) throws IOException {
+        out.beginArray();
+        if (values != null) {
+            for (int value : values) {
+                out.value(value);
+            }
+        }
+        out.endArray();
+    }
+
+    private static ByteArrayOutputStream error(String message) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (JsonWriter out = new JsonWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            out.beginObject();
+            out.name("error").value(message);
+            out.endObject();
+        }
+        return body;
+    }
+
+    private static int nodeParameter(Main.Analysis analysis, Map<String, String> query, String name) {
+        int node = intParameter(query, name);
+        if (node < 0 || node >= analysis.input.n) {
+            throw new IllegalArgumentException("Node " + node + " is outside 0.." + (analysis.input.n - 1));
+        }
+        return node;
+    }
+
+    private static int intParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + name + " parameter");
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " parameter: " + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+}
@@ -1,18 +1,24 @@
 package graph;
 
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operation counter and stopwatch. Safe to share between threads: the count is a
+ * {@link LongAdder}, and the time is measured from construction or the last {@link #reset()}.
+ */
 public class BasicMetrics implements Metrics {
-    private long operationCount = 0;
-    private long startTime;
+    private final LongAdder operationCount = new LongAdder();
+    private volatile long startTime = System.nanoTime();
 
     @Override
     public void reset() {
-        operationCount = 0;
+        operationCount.reset();
         startTime = System.nanoTime();
     }
 
     @Override
     public long getOperationCount() {
-        return operationCount;
+        return operationCount.sum();
     }
 
     @Override
@@ -22,6 +28,11 @@ public class BasicMetrics implements Metrics {
 
     @Override
     public void incrementOperationCount() {
-        operationCount++;
+        operationCount.increment();
+    }
+
+    @Override
+    public void addOperationCount(long count) {
+        operationCount.add(count);
     }
 }
\ No newline at end of file
@@ -1,25 +1,126 @@
 package graph;
 
+import graph.io.BinaryGraphFormat;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Processes every graph under a directory concurrently.
+ *
+ * Datasets are discovered recursively ({@code .json} and {@code .bin}; when both forms of a
+ * dataset exist the binary one is used unless the JSON is newer) and named by their path
+ * relative to the data directory, so {@code a/x.json} and {@code b/x.json} write their results
+ * to {@code results/csv/a/x_*} and {@code results/csv/b/x_*}. They are queued largest first,
+ * so the long jobs start early and small ones fill in the gaps. A fixed pool of workers, sized
+ * to the available cores, pulls from that queue; unless {@code --threads} is given, the
+ * parallel phases of each job share the cores out between the workers instead of each using
+ * all of them. A memory budget additionally limits how many large graphs are resident at
+ * once. Each dataset's outcome is recorded rather than printed, and a combined summary is
+ * written to {@code results/batch_summary.csv} and {@code results/json/batch_summary.json}.
+ *
+ * Results are cached in {@link ResultCache#DEFAULT_ROOT} by the content of each input. A dataset
+ * whose input, options and result files are unchanged since the last run is skipped outright;
+ * one whose results are cached under another name, or whose files were removed, is exported
+ * again from the cache without parsing or analysis. {@code --no-cache} turns this off.
+ *
+ * Usage: java graph.BatchProcessor [data-dir] [--jobs=N] [--memory-budget-mb=N] [--no-cache] [Main options...]
+ */
 public class BatchProcessor {
+    /** Rough heap needed per byte of input, by format: JSON is far larger on disk than in memory. */
+    private static final double JSON_HEAP_FACTOR = 1.0;
+    private static final double BINARY_HEAP_FACTOR = 4.0;
+
+    /**
+     * Outcome of processing one dataset.
+     */
+    public static class Outcome {
+        public final String dataset;
+        public final String input;
+        public final boolean success;
+        /** How the result cache was used: off, miss, hit (exported from the cache) or current (skipped). */
+        public final String cache;
+        public final long elapsedNanos;
+        public final int nodes;
+        public final int edges;
+        public final int sccCount;
+        public final long criticalPathLength;
+        public final String error;
+
+        Outcome(String dataset, String input, boolean success, String cache, long elapsedNanos, int nodes,
+                int edges, int sccCount, long criticalPathLength, String error) {
+            this.dataset = dataset;
+            this.input = input;
+            this.success = success;
+            this.cache = cache;
+            this.elapsedNanos = elapsedNanos;
+            this.nodes = nodes;
+            this.edges = edges;
+            this.sccCount = sccCount;
+            this.criticalPathLength = criticalPathLength;
+            this.error = error;
+        }
+    }
+
     public static void main(String[] args) {
         System.out.println("=== Smart City Scheduling - Batch Processor ===");
 
+        Path dataDir = Paths.get("data");
+        int cores = Runtime.getRuntime().availableProcessors();
+        int jobs = cores;
+        long memoryBudget = (long) (Runtime.getRuntime().maxMemory() * 0.7);
+        boolean useCache = true;
+        boolean threadsGiven = false;
+        List<String> mainArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--jobs=")) {
+                jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            } else if (arg.startsWith("--memory-budget-mb=")) {
+                memoryBudget = Long.parseLong(arg.substring("--memory-budget-mb=".length())) << 20;
+            } else if (arg.equals("--no-cache")) {
+                useCache = false;
+            } else if (arg.startsWith("--")) {
+                threadsGiven |= arg.startsWith("--threads=");
+                mainArgs.add(arg);
+            } else {
+                dataDir = Paths.get(arg);
+            }
+        }
+        Main.Options options = Main.Options.parse(mainArgs.toArray(new String[0]), 0);
+        if (!threadsGiven && jobs > 1) {
+            // Each job's parallel phases get a share of the cores rather than a pool of them all
+            options.threads = Math.max(1, cores / jobs);
+        }
+
         // Create necessary directories
         createDirectories();
 
-        // Generate datasets if they don't exist
-        if (!datasetsExist()) {
-            System.out.println("Generating datasets...");
-            DatasetGenerator.main(args);
-        }
+        try {
+            // Generate datasets if there is nothing to process
+            if (discoverDatasets(dataDir).isEmpty() && dataDir.equals(Paths.get("data"))) {
+                System.out.println("Generating datasets...");
+                DatasetGenerator.main(new String[0]);
+            }
 
-        // Process all datasets
-        processAllDatasets();
+            long start = System.nanoTime();
+            ResultCache cache = useCache ? new ResultCache(ResultCache.DEFAULT_ROOT) : null;
+            List<Outcome> outcomes = processAll(discoverDatasets(dataDir), options, cache, jobs, memoryBudget);
+            writeSummary(outcomes);
+            if (cache != null) {
+                cache.prune();
+            }
 
-        System.out.println("=== Batch processing completed! ===");
+            long failed = outcomes.stream().filter(o -> !o.success).count();
+            System.out.printf("=== Batch processing completed: %d datasets, %d failed, %.1f ms ===%n",
+                    outcomes.size(), failed, (System.nanoTime() - start) / 1e6);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Batch processing failed: " + e.getMessage());
+        }
     }
 
     private static void createDirectories() {
@@ -28,35 +129,173 @@ public class BatchProcessor {
         new File("results/json").mkdirs();
     }
 
-    private static boolean datasetsExist() {
-        String[] expectedFiles = {
-                "small_cycle.json", "small_dag.json", "small_mixed.json",
-                "medium_complex_dag.json", "medium_mixed.json", "medium_multiple_scc.json",
-                "large_sparse.json", "large_medium.json", "large_complex_scc.json"
-        };
+    /**
+     * All graph files under {@code dir} by dataset name, largest first. A dataset present as
+     * both JSON and binary is listed once, in its binary form unless the JSON is newer.
+     */
+    static Map<String, Path> discoverDatasets(Path dir) throws IOException {
+        Map<String, Path> byName = new TreeMap<>();
+        if (!Files.isDirectory(dir)) {
+            return byName;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                String name = file.toString();
+                if (name.endsWith(BinaryGraphFormat.EXTENSION) || name.endsWith(".json")) {
+                    byName.merge(datasetName(dir, file), file, BatchProcessor::preferred);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Path>> datasets = new ArrayList<>(byName.entrySet());
+        Map<Path, Long> sizes = new HashMap<>();
+        for (Path file : byName.values()) {
+            sizes.put(file, Files.size(file));
+        }
+        datasets.sort((a, b) -> Long.compare(sizes.get(b.getValue()), sizes.get(a.getValue())));
+        Map<String, Path> largestFirst = new LinkedHashMap<>();
+        for (Map.Entry<String, Path> dataset : datasets) {
+            largestFirst.put(dataset.getKey(), dataset.getValue());
+        }
+        return largestFirst;
+    }
+
+    /** The path of {@code file} relative to {@code dir}, without the extension and with '/' separators. */
+    static String datasetName(Path dir, Path file) {
+        Path relative = dir.relativize(file);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+            name.append(relative.getName(i)).append('/');
+        }
+        return name.append(Main.getBaseName(file.toString())).toString();
+    }
+
+    /** Of the two forms of one dataset, the binary one unless the JSON was modified after it. */
+    private static Path preferred(Path a, Path b) {
+        Path binary = a.toString().endsWith(BinaryGraphFormat.EXTENSION) ? a : b;
+        Path json = binary == a ? b : a;
+        try {
+            return Files.getLastModifiedTime(binary).compareTo(Files.getLastModifiedTime(json)) >= 0 ? binary : json;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Processes {@code datasets} in the given order on {@code jobs} workers, holding each
+     * dataset's estimated heap footprint against {@code memoryBudget} while it runs. The
+     * cache may be null.
+     */
+    static List<Outcome> processAll(Map<String, Path> datasets, Main.Options options, ResultCache cache, int jobs,
+                                    long memoryBudget) throws InterruptedException {
+        int budgetMb = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudget >> 20));
+        Semaphore memory = new Semaphore(budgetMb, true);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(jobs, datasets.size())));
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            List<Map.Entry<String, Path>> queue = new ArrayList<>(datasets.entrySet());
+            for (Map.Entry<String, Path> entry : queue) {
+                String name = entry.getKey();
+                Path dataset = entry.getValue();
+                futures.add(executor.submit(() -> {
+                    int permits = Math.min(budgetMb, estimateHeapMb(dataset));
+                    memory.acquire(permits);
+                    try {
+                        return processOne(name, dataset, options, cache);
+                    } finally {
+                        memory.release(permits);
+                    }
+                }));
+            }
+
+            List<Outcome> outcomes = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Map.Entry<String, Path> dataset = queue.get(i);
+                    outcomes.add(new Outcome(dataset.getKey(), dataset.getValue().toString(),
+                            false, cache == null ? "off" : "miss", 0, 0, 0, 0, 0, String.valueOf(e.getCause())));
+                }
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int estimateHeapMb(Path dataset) throws IOException {
+        double factor = dataset.toString().endsWith(BinaryGraphFormat.EXTENSION)
+                ? BINARY_HEAP_FACTOR : JSON_HEAP_FACTOR;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, (long) (Files.size(dataset) * factor) >> 20));
+    }
+
+    private static Outcome processOne(String name, Path dataset, Main.Options options, ResultCache cache) {
+        long start = System.nanoTime();
+        String cacheUse = cache == null ? "off" : "miss";
+        try {
+            PrintStream log = new PrintStream(OutputStream.nullOutputStream());
+            if (cache == null) {
+                Main.Analysis analysis = Main.processGraph(dataset.toString(), name, options, log);
+                return succeeded(dataset, name, cacheUse, start, analysis);
+            }
 
-        for (String filename : expectedFiles) {
-            if (!new File("data/" + filename).exists()) {
-                return false;
+            ResultCache.Lookup lookup = cache.lookup(dataset, name, options);
+            if (lookup.current != null) {
+                ResultCache.Stamp stamp = lookup.current;
+                return new Outcome(name, dataset.toString(), true, "current", System.nanoTime() - start,
+                        stamp.nodes, stamp.edges, stamp.sccCount, stamp.criticalPathLength, null);
+            }
+
+            Main.Analysis analysis = null;
+            if (lookup.cached) {
+                try {
+                    analysis = cache.load(lookup);
+                } catch (IOException | RuntimeException e) {
+                    // A damaged entry is recomputed and replaced
+                    cache.discard(lookup);
+                }
+            }
+            if (analysis != null) {
+                cacheUse = "hit";
+                Main.export(analysis, name, options, log);
+            } else {
+                analysis = Main.processGraph(dataset.toString(), name, options, log);
+                cache.store(lookup, analysis);
             }
+            cache.recordOutputs(lookup, name, options, analysis);
+            return succeeded(dataset, name, cacheUse, start, analysis);
+        } catch (Exception e) {
+            return new Outcome(name, dataset.toString(), false, cacheUse, System.nanoTime() - start,
+                    0, 0, 0, 0, e.getClass().getSimpleName() + ": " + e.getMessage());
         }
-        return true;
     }
 
-    private static void processAllDatasets() {
-        String[] datasets = {
-                "small_cycle", "small_dag", "small_mixed",
-                "medium_complex_dag", "medium_mixed", "medium_multiple_scc",
-                "large_sparse", "large_medium", "large_complex_scc"
-        };
+    private static Outcome succeeded(Path dataset, String name, String cacheUse, long start,
+                                     Main.Analysis analysis) {
+        return new Outcome(name, dataset.toString(), true, cacheUse, System.nanoTime() - start,
+                analysis.input.n, analysis.input.edgeCount(), analysis.components.count,
+                analysis.longest.criticalPathLength, null);
+    }
 
-        for (String dataset : datasets) {
-            System.out.println("Processing: " + dataset);
-            try {
-                Main.main(new String[]{"data/" + dataset + ".json"});
-            } catch (Exception e) {
-                System.err.println("Error processing " + dataset + ": " + e.getMessage());
+    private static void writeSummary(List<Outcome> outcomes) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter("results/batch_summary.csv"))) {
+            writer.println("dataset,input,status,cache,nodes,edges,scc_count,critical_path_length,elapsed_ms,error");
+            for (Outcome o : outcomes) {
+                writer.printf(Locale.ROOT, "%s,%s,%s,%s,%d,%d,%d,%d,%.3f,%s%n",
+                        quote(o.dataset), quote(o.input), o.success ? "ok" : "failed", o.cache, o.nodes, o.edges,
+                        o.sccCount, o.criticalPathLength, o.elapsedNanos / 1e6,
+                        o.error == null ? "" : quote(o.error));
             }
         }
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (FileWriter writer = new FileWriter("results/json/batch_summary.json")) {
+            gson.toJson(outcomes, writer);
+        }
+    }
+
+    private static String quote(String field) {
+        return "\"" + field.replace("\"", "'") + "\"";
     }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package graph;
+
+import java.util.*;
+
+/**
+ * Compressed sparse row graph. The out-edges of node {@code u} are
+ * {@code targets[offsets[u] .. offsets[u + 1])} with matching {@code weights}.
+ */
+public class CSRGraph {
+    public final int n;
+    public final int[] offsets;
+    public final int[] targets;
+    public final int[] weights;
+
+    public CSRGraph(int n, int[] offsets, int[] targets, int[] weights) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public int edgeCount() {
+        return offsets[n];
+    }
+
+    public int outDegree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+
+    /**
+     * Builds a CSR graph from the first {@code m} entries of parallel edge arrays in two passes:
+     * one to count out-degrees, one to scatter targets. Edge order per node is preserved.
+     */
+    public static CSRGraph fromEdges(int n, int[] us, int[] vs, int[] ws, int m) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[us[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < m; i++) {
+            int pos = cursor[us[i]]++;
+            targets[pos] = vs[i];
+            weights[pos] = ws[i];
+        }
+        return new CSRGraph(n, offsets, targets, weights);
+    }
+
+    public static CSRGraph fromAdjacencyList(List<List<Integer>> adj) {
+        int n = adj.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + adj.get(u).size();
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        Arrays.fill(weights, 1);
+        for (int u = 0; u < n; u++) {
+            int pos = offsets[u];
+            for (int v : adj.get(u)) {
+                targets[pos++] = v;
+            }
+        }
+        return new CSRGraph(n, offsets, targets, weights);
+    }
+
+    public static CSRGraph fromWeightedAdjacencyList(List<List<int[]>> adj) {
+        int n = adj.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + adj.get(u).size();
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int pos = offsets[u];
+            for (int[] edge : adj.get(u)) {
+                targets[pos] = edge[0];
+                weights[pos] = edge[1];
+                pos++;
+            }
+        }
+        return new CSRGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Reverse graph: the out-edges of {@code v} in the result are the in-edges of {@code v} here.
+     */
+    public CSRGraph transpose() {
+        int m = edgeCount();
+        int[] revOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            revOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            revOffsets[v + 1] += revOffsets[v];
+        }
+
+        int[] revTargets = new int[m];
+        int[] revWeights = new int[m];
+        int[] cursor = Arrays.copyOf(revOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int pos = cursor[targets[e]]++;
+                revTargets[pos] = u;
+                revWeights[pos] = weights[e];
+            }
+        }
+        return new CSRGraph(n, revOffsets, revTargets, revWeights);
+    }
+
+    /**
+     * Adjacency as nested int arrays, for JSON export.
+     */
+    public int[][] toAdjacencyArrays() {
+        int[][] adj = new int[n][];
+        for (int u = 0; u < n; u++) {
+            adj[u] = Arrays.copyOfRange(targets, offsets[u], offsets[u + 1]);
+        }
+        return adj;
+    }
+}
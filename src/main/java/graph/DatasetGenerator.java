@@ -2,13 +2,25 @@ package graph;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import graph.gen.SyntheticGraphGenerator;
+import graph.io.GraphInput;
+import graph.io.JsonGraphLoader;
 import java.io.*;
 import java.util.*;
 
 public class DatasetGenerator {
     private static final Random random = new Random(42);
 
+    /**
+     * Generates the bundled sample datasets, or with {@code --synthetic <output> [options...]}
+     * one large graph through {@link SyntheticGraphGenerator}.
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--synthetic")) {
+            SyntheticGraphGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // Create directories first
         createDirectories();
         generateAllDatasets();
@@ -70,6 +82,29 @@ public class DatasetGenerator {
     private static void generateDataset(String name, int nodes, int targetEdges,
                                         boolean allowCycles, double cycleProbability,
                                         boolean multipleSCC, String complexity) {
+        GraphData graph = generateGraph(complexity, nodes, targetEdges, random);
+
+        // Save to file
+        File outputFile = new File("data/" + name + ".json");
+        try (FileWriter writer = new FileWriter(outputFile)) {
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            gson.toJson(graph, writer);
+            System.out.println("✓ Generated: " + name + " - " + nodes + " nodes, " +
+                    graph.edges.size() + " edges, " + complexity + " complexity");
+        } catch (IOException e) {
+            System.err.println("✗ Failed to generate " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generates a graph in memory with its own seeded random source, for benchmarks and tests.
+     * {@code complexity} is one of acyclic, cyclic, mixed, sparse or dense.
+     */
+    public static GraphData generate(String complexity, int nodes, int targetEdges, long seed) {
+        return generateGraph(complexity, nodes, targetEdges, new Random(seed));
+    }
+
+    private static GraphData generateGraph(String complexity, int nodes, int targetEdges, Random random) {
         GraphData graph = new GraphData();
         graph.n = nodes;
         graph.edges = new ArrayList<>();
@@ -81,37 +116,27 @@ public class DatasetGenerator {
         // Create different graph structures based on complexity
         switch (complexity) {
             case "acyclic":
-                generateDAG(graph, edgeSet, nodes, targetEdges);
+                generateDAG(graph, edgeSet, nodes, targetEdges, random);
                 break;
             case "cyclic":
-                generateCyclicGraph(graph, edgeSet, nodes, targetEdges);
+                generateCyclicGraph(graph, edgeSet, nodes, targetEdges, random);
                 break;
             case "mixed":
-                generateMixedGraph(graph, edgeSet, nodes, targetEdges);
+                generateMixedGraph(graph, edgeSet, nodes, targetEdges, random);
                 break;
             case "sparse":
-                generateSparseGraph(graph, edgeSet, nodes, targetEdges);
+                generateSparseGraph(graph, edgeSet, nodes, targetEdges, random);
                 break;
             case "dense":
-                generateDenseGraph(graph, edgeSet, nodes, targetEdges);
+                generateDenseGraph(graph, edgeSet, nodes, targetEdges, random);
                 break;
             default:
-                generateMixedGraph(graph, edgeSet, nodes, targetEdges);
-        }
-
-        // Save to file
-        File outputFile = new File("data/" + name + ".json");
-        try (FileWriter writer = new FileWriter(outputFile)) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            gson.toJson(graph, writer);
-            System.out.println("✓ Generated: " + name + " - " + nodes + " nodes, " +
-                    graph.edges.size() + " edges, " + complexity + " complexity");
-        } catch (IOException e) {
-            System.err.println("✗ Failed to generate " + name + ": " + e.getMessage());
+                generateMixedGraph(graph, edgeSet, nodes, targetEdges, random);
         }
+        return graph;
     }
 
-    private static void generateDAG(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges) {
+    private static void generateDAG(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges, Random random) {
         // Generate a proper DAG (no cycles)
         for (int i = 1; i < nodes; i++) {
             int u = random.nextInt(i);
@@ -138,7 +163,7 @@ public class DatasetGenerator {
         }
     }
 
-    private static void generateCyclicGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges) {
+    private static void generateCyclicGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges, Random random) {
         // Start with a cycle
         for (int i = 0; i < nodes; i++) {
             int u = i;
@@ -168,9 +193,9 @@ public class DatasetGenerator {
         }
     }
 
-    private static void generateMixedGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges) {
+    private static void generateMixedGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges, Random random) {
         // Mix of DAG and cyclic structures
-        generateDAG(graph, edgeSet, nodes, targetEdges / 2);
+        generateDAG(graph, edgeSet, nodes, targetEdges / 2, random);
 
         // Add some cycles
         int cyclesToAdd = Math.max(1, nodes / 5);
@@ -211,14 +236,14 @@ public class DatasetGenerator {
         }
     }
 
-    private static void generateSparseGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges) {
+    private static void generateSparseGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges, Random random) {
         // Sparse graph - mostly tree-like with few extra edges
-        generateDAG(graph, edgeSet, nodes, Math.min(targetEdges, nodes * 2));
+        generateDAG(graph, edgeSet, nodes, Math.min(targetEdges, nodes * 2), random);
     }
 
-    private static void generateDenseGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges) {
+    private static void generateDenseGraph(GraphData graph, Set<String> edgeSet, int nodes, int targetEdges, Random random) {
         // Dense graph - many edges
-        for (int u = 0; u < nodes; u++) {
+        for (int u = 0; u < nodes && graph.edges.size() < targetEdges; u++) {
             for (int v = 0; v < nodes; v++) {
                 if (u != v && graph.edges.size() < targetEdges) {
                     String edgeKey = u + "->" + v;
@@ -243,16 +268,13 @@ public class DatasetGenerator {
             if (files != null) {
                 for (File file : files) {
                     try {
-                        Gson gson = new Gson();
-                        GraphData graph = gson.fromJson(new FileReader(file), GraphData.class);
+                        GraphInput graph = JsonGraphLoader.load(file.toPath());
 
                         Map<String, Object> info = new LinkedHashMap<>();
                         info.put("dataset", file.getName().replace(".json", ""));
                         info.put("nodes", graph.n);
-                        info.put("edges", graph.edges.size());
-                        double density = graph.n > 1 ?
-                                (double) graph.edges.size() / (graph.n * (graph.n - 1)) : 0;
-                        info.put("density", String.format("%.3f", density));
+                        info.put("edges", graph.edgeCount());
+                        info.put("density", String.format("%.3f", graph.density()));
                         info.put("source", graph.source);
                         info.put("weight_model", graph.weightModel);
 
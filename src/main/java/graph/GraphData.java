@@ -39,4 +39,25 @@ public class GraphData {
         }
         return adj;
     }
+
+    public CSRGraph buildCSRGraph() {
+        int m = edges.size();
+        int[] offsets = new int[n + 1];
+        for (Edge edge : edges) {
+            offsets[edge.u + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (Edge edge : edges) {
+            int pos = cursor[edge.u]++;
+            targets[pos] = edge.v;
+            weights[pos] = edge.w;
+        }
+        return new CSRGraph(n, offsets, targets, weights);
+    }
 }
\ No newline at end of file
@@ -1,45 +1,75 @@
 package graph;
 
+import graph.scc.Condensation;
+import graph.scc.ParallelSCC;
 import graph.scc.SCC;
+import graph.topo.ParallelTopologicalSort;
 import graph.topo.TopologicalSort;
+import graph.dagsp.CriticalPathMethod;
 import graph.dagsp.DAGShortestPath;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import graph.dagsp.MultiSourceDAGPaths;
+import graph.dagsp.PathTree;
+import graph.io.BinaryGraphFormat;
+import graph.io.ColumnarResultFormat;
+import graph.io.CsvWriter;
+import graph.io.GraphInput;
+import com.google.gson.stream.JsonWriter;
 import java.io.*;
 import java.util.*;
 import java.nio.file.*;
-import java.util.stream.Collectors;
 
 public class Main {
-    private static class BasicMetrics implements Metrics {
-        private long operationCount = 0;
-        private long startTime;
-
-        @Override
-        public void reset() {
-            operationCount = 0;
-            startTime = System.nanoTime();
-        }
-
-        @Override
-        public long getOperationCount() {
-            return operationCount;
-        }
-
-        @Override
-        public long getTimeNanos() {
-            return System.nanoTime() - startTime;
-        }
-
-        @Override
-        public void incrementOperationCount() {
-            operationCount++;
+    static class Options {
+        boolean parallelSCC = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean countOperations = true;
+        boolean parallelTopo = false;
+        /** Input nodes to compute distances from for the distance matrix export; null when not requested. */
+        int[] sources;
+        boolean allSources = false;
+        /** Write columnar binary arrays instead of the component/path CSVs and the full JSON. */
+        boolean columnar = false;
+        ColumnarResultFormat.Compression compression = ColumnarResultFormat.Compression.NONE;
+
+        static Options parse(String[] args, int from) {
+            Options options = new Options();
+            for (int i = from; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--scc=parallel")) {
+                    options.parallelSCC = true;
+                } else if (arg.equals("--scc=tarjan")) {
+                    options.parallelSCC = false;
+                } else if (arg.startsWith("--threads=")) {
+                    options.threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.equals("--topo=parallel")) {
+                    options.parallelTopo = true;
+                } else if (arg.equals("--topo=kahn")) {
+                    options.parallelTopo = false;
+                } else if (arg.equals("--sources=all")) {
+                    options.allSources = true;
+                } else if (arg.startsWith("--sources=")) {
+                    options.sources = Arrays.stream(arg.substring("--sources=".length()).split(","))
+                            .mapToInt(s -> Integer.parseInt(s.trim()))
+                            .toArray();
+                } else if (arg.equals("--output=columnar")) {
+                    options.columnar = true;
+                } else if (arg.equals("--output=full")) {
+                    options.columnar = false;
+                } else if (arg.startsWith("--compress=")) {
+                    options.compression = ColumnarResultFormat.Compression.parse(arg.substring("--compress=".length()));
+                } else if (arg.equals("--no-metrics")) {
+                    options.countOperations = false;
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            return options;
         }
     }
 
     public static void main(String[] args) {
         if (args.length < 1) {
-            System.out.println("Usage: java graph.Main <input-file>");
+            System.out.println("Usage: java graph.Main <input-file> [--scc=tarjan|parallel] [--topo=kahn|parallel] [--threads=N] [--sources=all|a,b,...] [--output=full|columnar] [--compress=none|gzip|deflate] [--no-metrics]");
             System.out.println("Available datasets:");
             listAvailableDatasets();
             return;
@@ -57,12 +87,13 @@ public class Main {
             }
 
             String baseName = getBaseName(inputFile);
+            Options options = Options.parse(args, 1);
 
             // Create results directory structure
             createDirectories();
 
             // Process the graph
-            processGraph(inputFile, baseName);
+            processGraph(inputFile, baseName, options, System.out);
 
         } catch (Exception e) {
             System.err.println("Error processing file: " + e.getMessage());
@@ -73,7 +104,8 @@ public class Main {
     private static void listAvailableDatasets() {
         File dataDir = new File("data");
         if (dataDir.exists() && dataDir.isDirectory()) {
-            File[] files = dataDir.listFiles((dir, name) -> name.endsWith(".json"));
+            File[] files = dataDir.listFiles((dir, name) ->
+                    name.endsWith(".json") || name.endsWith(BinaryGraphFormat.EXTENSION));
             if (files != null && files.length > 0) {
                 for (File file : files) {
                     System.out.println("  data/" + file.getName());
@@ -86,70 +118,248 @@ public class Main {
         }
     }
 
-    private static void processGraph(String inputFile, String baseName) throws Exception {
-        System.out.println("=== Processing: " + baseName + " ===");
+    /**
+     * Results of one pipeline run, kept so callers such as the batch processor and the analysis
+     * server can report on it. The distance matrices are null unless sources were requested.
+     */
+    static class Analysis {
+        final GraphInput input;
+        final SCC.Components components;
+        final CSRGraph condensation;
+        final int[] topoOrder;
+        final ParallelTopologicalSort.Waves waves;
+        /** Component containing the input's source node, where the shortest and longest paths start. */
+        final int source;
+        final DAGShortestPath.LongResult shortest;
+        final DAGShortestPath.LongResult longest;
+        /** Earliest and latest starts and slack of every component. */
+        final CriticalPathMethod.Schedule schedule;
+        final MultiSourceDAGPaths.Matrix shortestMatrix;
+        final MultiSourceDAGPaths.Matrix longestMatrix;
+        final PhaseMetrics metrics;
+
+        Analysis(GraphInput input, SCC.Components components, CSRGraph condensation, int[] topoOrder,
+                 ParallelTopologicalSort.Waves waves, int source, DAGShortestPath.LongResult shortest,
+                 DAGShortestPath.LongResult longest, CriticalPathMethod.Schedule schedule,
+                 MultiSourceDAGPaths.Matrix shortestMatrix, MultiSourceDAGPaths.Matrix longestMatrix,
+                 PhaseMetrics metrics) {
+            this.input = input;
+            this.components = components;
+            this.condensation = condensation;
+            this.topoOrder = topoOrder;
+            this.waves = waves;
+            this.source = source;
+            this.shortest = shortest;
+            this.longest = longest;
+            this.schedule = schedule;
+            this.shortestMatrix = shortestMatrix;
+            this.longestMatrix = longestMatrix;
+            this.metrics = metrics;
+        }
+    }
+
+    static Analysis processGraph(String inputFile, String baseName, Options options,
+                                 PrintStream log) throws IOException {
+        log.println("=== Processing: " + baseName + " ===");
+
+        PhaseMetrics metrics = new PhaseMetrics(options.countOperations);
 
         // Read input file
-        Gson gson = new Gson();
-        GraphData graphData = gson.fromJson(new FileReader(inputFile), GraphData.class);
+        PhaseMetrics.Timer timer = metrics.start(PhaseMetrics.Phase.LOAD);
+        GraphInput input = GraphInput.load(Paths.get(inputFile));
+        timer.stop();
 
-        System.out.println("Graph loaded: " + graphData.n + " nodes, " + graphData.edges.size() + " edges");
+        log.println("Graph loaded: " + input.n + " nodes, " + input.edgeCount() + " edges");
 
-        BasicMetrics metrics = new BasicMetrics();
+        Analysis analysis = analyze(input, options, metrics, log);
+        export(analysis, baseName, options, log);
 
-        // 1. SCC Detection
-        System.out.println("1. Finding Strongly Connected Components...");
-        List<List<Integer>> adj = graphData.buildAdjacencyList();
-        SCC scc = new SCC(graphData.n, adj, metrics);
-        List<List<Integer>> components = scc.findSCCs();
+        log.println("=== Completed: " + baseName + " ===");
+        log.println();
+        return analysis;
+    }
 
-        System.out.println("   Found " + components.size() + " SCCs");
+    /**
+     * Runs the SCC, condensation, topological sort and path phases on a loaded graph, timing
+     * each into {@code metrics}. Nothing is written; see {@link #export}.
+     */
+    static Analysis analyze(GraphInput input, Options options, PhaseMetrics metrics, PrintStream log) {
+        // 1. SCC Detection
+        log.println("1. Finding Strongly Connected Components...");
+        CSRGraph graph = input.graph;
+        SCC.Components components;
+        PhaseMetrics.Timer timer = metrics.start(PhaseMetrics.Phase.SCC);
+        Metrics sccMetrics = metrics.forPhase(PhaseMetrics.Phase.SCC);
+        if (options.parallelSCC) {
+            components = new ParallelSCC(graph, options.threads, sccMetrics).findComponents();
+        } else {
+            components = new SCC(graph, sccMetrics).findComponents();
+        }
+        timer.stop();
 
-        // Export SCC components to CSV
-        exportComponentsToCSV(components, "results/csv/" + baseName + "_components.csv");
-        System.out.println("   ✓ Exported components to CSV");
+        log.println("   Found " + components.count + " SCCs");
 
         // 2. Condensation Graph and Topological Sort
-        System.out.println("2. Building condensation graph and topological sort...");
-        List<List<Integer>> condensation = scc.getCondensationGraph();
-        TopologicalSort topo = new TopologicalSort(metrics);
-        List<Integer> topoOrder = topo.kahnTopoSort(condensation);
+        log.println("2. Building condensation graph and topological sort...");
+        timer = metrics.start(PhaseMetrics.Phase.CONDENSATION);
+        CSRGraph condensation = Condensation.build(graph, components);
+        timer.stop();
+        int[] topoOrder;
+        ParallelTopologicalSort.Waves waves = null;
+        timer = metrics.start(PhaseMetrics.Phase.TOPO);
+        Metrics topoMetrics = metrics.forPhase(PhaseMetrics.Phase.TOPO);
+        if (options.parallelTopo) {
+            waves = new ParallelTopologicalSort(condensation, options.threads, topoMetrics).sort();
+            topoOrder = waves.order;
+        } else {
+            topoOrder = new TopologicalSort(topoMetrics).kahnTopoSort(condensation);
+        }
+        timer.stop();
+
+        log.println("   Condensation graph: " + condensation.n + " nodes");
+        log.println("   Topological order computed");
+        if (waves != null) {
+            log.println("   " + waves.count() + " parallel waves, widest has " + waves.largestSize() + " components");
+        }
 
-        System.out.println("   Condensation graph: " + condensation.size() + " nodes");
-        System.out.println("   Topological order computed");
+        // 3. Shortest and Longest Paths in DAG, from the component containing the source node
+        log.println("3. Computing shortest and longest paths...");
+        int source = components.compId[checkNode(input, input.source)];
+        timer = metrics.start(PhaseMetrics.Phase.PATHS);
+        DAGShortestPath.PathBounds bounds = new DAGShortestPath(metrics.forPhase(PhaseMetrics.Phase.PATHS))
+                .shortestAndLongestPaths(condensation, topoOrder, source);
+        timer.stop();
+        DAGShortestPath.LongResult shortest = bounds.shortest();
+        DAGShortestPath.LongResult longest = bounds.longest();
+
+        log.println("   Critical path length: " + longest.criticalPathLength);
+
+        // 4. CPM schedule of all components: earliest and latest starts, and slack
+        log.println("4. Computing CPM schedule...");
+        timer = metrics.start(PhaseMetrics.Phase.PATHS);
+        CriticalPathMethod.Schedule schedule = new CriticalPathMethod(metrics.forPhase(PhaseMetrics.Phase.PATHS))
+                .schedule(condensation, topoOrder);
+        timer.stop();
+
+        log.println("   Project duration: " + schedule.projectDuration + ", "
+                + schedule.criticalTasks.length + " zero-slack components");
+
+        MultiSourceDAGPaths.Matrix shortestMatrix = null;
+        MultiSourceDAGPaths.Matrix longestMatrix = null;
+        int[] sourceNodes = options.allSources ? MultiSourceDAGPaths.allSources(input.n) : options.sources;
+        if (sourceNodes != null) {
+            // Sources are distinct components, so each sweep column is useful work
+            int[] sourceComponents = Arrays.stream(sourceNodes)
+                    .map(v -> components.compId[checkNode(input, v)])
+                    .distinct()
+                    .toArray();
+            MultiSourceDAGPaths paths = new MultiSourceDAGPaths(condensation, topoOrder, options.threads,
+                    metrics.forPhase(PhaseMetrics.Phase.PATHS));
+            timer = metrics.start(PhaseMetrics.Phase.PATHS);
+            shortestMatrix = paths.shortestPaths(sourceComponents);
+            longestMatrix = paths.longestPaths(sourceComponents);
+            timer.stop();
+            log.println("   Distances computed from " + sourceComponents.length + " source components");
+        }
 
-        // 3. Shortest and Longest Paths in DAG
-        System.out.println("3. Computing shortest and longest paths...");
-        List<List<int[]>> weightedAdj = graphData.buildWeightedAdjacencyList();
-        DAGShortestPath dagSP = new DAGShortestPath(metrics);
+        return new Analysis(input, components, condensation, topoOrder, waves, source, shortest, longest,
+                schedule, shortestMatrix, longestMatrix, metrics);
+    }
 
-        List<List<int[]>> weightedCondensation = createWeightedCondensation(
-                condensation, components, graphData.edges);
+    /** Writes the CSV, JSON or columnar results of an analysis under {@code results/}. */
+    static void export(Analysis analysis, String baseName, Options options, PrintStream log) throws IOException {
+        GraphInput input = analysis.input;
+        SCC.Components components = analysis.components;
+        CSRGraph condensation = analysis.condensation;
+        int[] topoOrder = analysis.topoOrder;
+        ParallelTopologicalSort.Waves waves = analysis.waves;
+        DAGShortestPath.LongResult shortest = analysis.shortest;
+        DAGShortestPath.LongResult longest = analysis.longest;
+        CriticalPathMethod.Schedule schedule = analysis.schedule;
+        MultiSourceDAGPaths.Matrix shortestMatrix = analysis.shortestMatrix;
+        MultiSourceDAGPaths.Matrix longestMatrix = analysis.longestMatrix;
+        PhaseMetrics metrics = analysis.metrics;
+        // Batch datasets are named by their relative path, so their files may sit in subdirectories
+        for (Path file : outputFiles(baseName, options)) {
+            Files.createDirectories(file.getParent());
+        }
 
-        DAGShortestPath.Result shortest = dagSP.shortestPath(
-                weightedCondensation, topoOrder, 0);
+        // Exports; the metrics CSV and JSON come last so they include the time of the other exports
+        PhaseMetrics.Timer timer = metrics.start(PhaseMetrics.Phase.EXPORT);
+        if (options.columnar) {
+            Path directory = Paths.get("results", "columnar", baseName);
+            exportColumnar(input, components, topoOrder, waves, analysis.source, shortest, longest,
+                    schedule, options.compression, directory);
+            log.println("   ✓ Exported columnar results to " + directory);
+        } else {
+            exportComponentsToCSV(components, "results/csv/" + baseName + "_components.csv");
+            log.println("   ✓ Exported components to CSV");
 
-        DAGShortestPath.Result longest = dagSP.longestPath(
-                weightedCondensation, topoOrder, 0);
+            exportPathsToCSV(shortest, longest, "results/csv/" + baseName + "_paths.csv");
+            log.println("   ✓ Exported paths to CSV");
 
-        System.out.println("   Critical path length: " + longest.criticalPathLength);
+            exportScheduleToCSV(components, schedule, "results/csv/" + baseName + "_schedule.csv");
+            log.println("   ✓ Exported schedule to CSV");
+        }
 
-        // Export metrics to CSV
-        exportMetricsToCSV(graphData, components, condensation, topoOrder,
-                shortest, longest, metrics, "results/csv/" + baseName + "_metrics.csv");
-        System.out.println("   ✓ Exported metrics to CSV");
+        if (shortestMatrix != null) {
+            exportDistancesToCSV(shortestMatrix, longestMatrix, "results/csv/" + baseName + "_distances.csv");
+            log.println("   ✓ Exported distance matrix to CSV");
+        }
 
-        // Export paths to CSV
-        exportPathsToCSV(shortest, longest, "results/csv/" + baseName + "_paths.csv");
-        System.out.println("   ✓ Exported paths to CSV");
+        if (waves != null) {
+            exportWavesToCSV(waves, "results/csv/" + baseName + "_waves.csv");
+            log.println("   ✓ Exported parallel waves to CSV");
+        }
+        timer.stop();
+
+        timer = metrics.start(PhaseMetrics.Phase.EXPORT);
+        exportMetricsToCSV(input, components, condensation, topoOrder,
+                shortest, longest, schedule, metrics, "results/csv/" + baseName + "_metrics.csv");
+        log.println("   ✓ Exported metrics to CSV");
+        timer.stop();
+
+        if (!options.columnar) {
+            timer = metrics.start(PhaseMetrics.Phase.EXPORT);
+            exportFullResultsToJSON(input, components, condensation, topoOrder,
+                    shortest, longest, schedule, metrics, "results/json/" + baseName + "_full.json");
+            log.println("   ✓ Exported full results to JSON");
+            timer.stop();
+        }
 
-        // Export full results to JSON
-        exportFullResultsToJSON(graphData, components, condensation, topoOrder,
-                shortest, longest, metrics, "results/json/" + baseName + "_full.json");
-        System.out.println("   ✓ Exported full results to JSON");
+    }
 
-        System.out.println("=== Completed: " + baseName + " ===");
-        System.out.println();
+    /**
+     * The files {@link #export} writes for a dataset. For columnar output only the manifest is
+     * listed, since it is written after all the columns it describes.
+     */
+    static List<Path> outputFiles(String baseName, Options options) {
+        List<Path> files = new ArrayList<>();
+        if (options.columnar) {
+            files.add(Paths.get("results", "columnar", baseName, ColumnarResultFormat.MANIFEST));
+        } else {
+            files.add(Paths.get("results/csv/" + baseName + "_components.csv"));
+            files.add(Paths.get("results/csv/" + baseName + "_paths.csv"));
+            files.add(Paths.get("results/csv/" + baseName + "_schedule.csv"));
+        }
+        if (options.allSources || options.sources != null) {
+            files.add(Paths.get("results/csv/" + baseName + "_distances.csv"));
+        }
+        if (options.parallelTopo) {
+            files.add(Paths.get("results/csv/" + baseName + "_waves.csv"));
+        }
+        files.add(Paths.get("results/csv/" + baseName + "_metrics.csv"));
+        if (!options.columnar) {
+            files.add(Paths.get("results/json/" + baseName + "_full.json"));
+        }
+        return files;
+    }
+
+    private static int checkNode(GraphInput input, int node) {
+        if (node < 0 || node >= input.n) {
+            throw new IllegalArgumentException("Source node " + node + " is outside 0.." + (input.n - 1));
+        }
+        return node;
     }
 
     private static void createDirectories() {
@@ -164,7 +374,7 @@ public class Main {
         }
     }
 
-    private static String getBaseName(String filePath) {
+    static String getBaseName(String filePath) {
         File file = new File(filePath);
         String name = file.getName();
         if (name.contains(".")) {
@@ -173,241 +383,313 @@ public class Main {
         return name;
     }
 
-    static void exportComponentsToCSV(List<List<Integer>> components, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("component_id,size,node_list,is_cycle");
-            for (int i = 0; i < components.size(); i++) {
-                List<Integer> component = components.get(i);
-                String nodeList = component.stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(", ", "[", "]"));
-                boolean isCycle = component.size() > 1; // Components with more than 1 node are cycles
-                writer.println(i + "," + component.size() + "," + nodeList + "," + isCycle);
+    static void exportComponentsToCSV(SCC.Components components, String filePath) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(filePath)) {
+            writer.write("component_id,size,node_list,is_cycle").endRow();
+            for (int i = 0; i < components.count; i++) {
+                boolean isCycle = components.size(i) > 1; // Components with more than 1 node are cycles
+                writer.write(i).comma().write(components.size(i)).comma().write('[')
+                        .writeJoined(components.nodes, components.offsets[i], components.offsets[i + 1], ", ")
+                        .write(']').comma().write(isCycle).endRow();
+            }
+        }
+    }
+
+    /**
+     * One row per reachable (source component, target component) pair of the distance matrices.
+     */
+    static void exportDistancesToCSV(MultiSourceDAGPaths.Matrix shortest, MultiSourceDAGPaths.Matrix longest,
+                                     String filePath) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(filePath)) {
+            writer.write("source_component,target_component,shortest_distance,longest_distance").endRow();
+            for (int i = 0; i < shortest.sources.length; i++) {
+                for (int v = 0; v < shortest.n; v++) {
+                    long d = shortest.get(i, v);
+                    if (d != DAGShortestPath.LongResult.UNREACHED_SHORTEST) {
+                        writer.write(shortest.sources[i]).comma().write(v).comma().write(d).comma()
+                                .write(longest.get(i, v)).endRow();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One row per wave of condensation components that can be scheduled concurrently.
+     */
+    static void exportWavesToCSV(ParallelTopologicalSort.Waves waves, String filePath) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(filePath)) {
+            writer.write("wave,size,component_list").endRow();
+            for (int k = 0; k < waves.count(); k++) {
+                writer.write(k).comma().write(waves.size(k)).comma().write("\"[")
+                        .writeJoined(waves.order, waves.waveOffsets[k], waves.waveOffsets[k + 1], ", ")
+                        .write("]\"").endRow();
             }
-        } catch (IOException e) {
-            System.err.println("Error exporting components to CSV: " + e.getMessage());
         }
     }
 
-    static void exportMetricsToCSV(GraphData graphData, List<List<Integer>> components,
-                                   List<List<Integer>> condensation, List<Integer> topoOrder,
-                                   DAGShortestPath.Result shortest, DAGShortestPath.Result longest,
-                                   Metrics metrics, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("metric,value,description");
+    static void exportMetricsToCSV(GraphInput input, SCC.Components components,
+                                   CSRGraph condensation, int[] topoOrder,
+                                   DAGShortestPath.LongResult shortest, DAGShortestPath.LongResult longest,
+                                   CriticalPathMethod.Schedule schedule, PhaseMetrics metrics,
+                                   String filePath) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(filePath)) {
+            writer.write("metric,value,description").endRow();
 
             // Graph metrics
-            writer.println("nodes," + graphData.n + ",Total number of nodes in graph");
-            writer.println("edges," + graphData.edges.size() + ",Total number of edges in graph");
-            double density = graphData.n > 1 ?
-                    (double) graphData.edges.size() / (graphData.n * (graphData.n - 1)) : 0;
-            writer.println("density," + String.format("%.4f", density) + ",Graph density");
-            writer.println("source," + graphData.source + ",Source node for path algorithms");
-            writer.println("weight_model," + graphData.weightModel + ",Weight model used");
+            metricRow(writer, "nodes", input.n, "Total number of nodes in graph");
+            metricRow(writer, "edges", input.edgeCount(), "Total number of edges in graph");
+            double density = input.density();
+            writer.write("density,").write(String.format("%.4f", density)).write(",Graph density").endRow();
+            metricRow(writer, "source", input.source, "Source node for path algorithms");
+            writer.write("weight_model,").write(String.valueOf(input.weightModel)).write(",Weight model used").endRow();
 
             // SCC metrics
-            writer.println("scc_count," + components.size() + ",Number of strongly connected components");
-            writer.println("largest_scc," + components.stream().mapToInt(List::size).max().orElse(0) + ",Size of largest SCC");
-            writer.println("smallest_scc," + components.stream().mapToInt(List::size).min().orElse(0) + ",Size of smallest SCC");
-            writer.println("avg_scc_size," + String.format("%.2f",
-                    components.stream().mapToInt(List::size).average().orElse(0)) + ",Average SCC size");
+            metricRow(writer, "scc_count", components.count, "Number of strongly connected components");
+            metricRow(writer, "largest_scc", components.largestSize(), "Size of largest SCC");
+            metricRow(writer, "smallest_scc", components.smallestSize(), "Size of smallest SCC");
+            writer.write("avg_scc_size,").write(String.format("%.2f", components.averageSize()))
+                    .write(",Average SCC size").endRow();
 
             // Condensation graph metrics
-            int condensationEdges = condensation.stream().mapToInt(List::size).sum();
-            writer.println("condensation_nodes," + condensation.size() + ",Nodes in condensation graph");
-            writer.println("condensation_edges," + condensationEdges + ",Edges in condensation graph");
+            metricRow(writer, "condensation_nodes", condensation.n, "Nodes in condensation graph");
+            metricRow(writer, "condensation_edges", condensation.edgeCount(), "Edges in condensation graph");
 
             // Path metrics
-            writer.println("critical_path_length," + longest.criticalPathLength + ",Length of critical path");
-            writer.println("operations_count," + metrics.getOperationCount() + ",Total operations performed");
-            writer.println("execution_time_ns," + metrics.getTimeNanos() + ",Execution time in nanoseconds");
+            metricRow(writer, "critical_path_length", longest.criticalPathLength, "Length of critical path");
+            metricRow(writer, "project_duration", schedule.projectDuration, "Earliest finish of all components");
+            metricRow(writer, "zero_slack_components", schedule.criticalTasks.length,
+                    "Components that cannot slip without delaying the project");
+            metricRow(writer, "operations_count", metrics.getTotalOperationCount(), "Total operations performed");
+            metricRow(writer, "execution_time_ns", metrics.getTotalTimeNanos(), "Execution time in nanoseconds");
+            for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+                metricRow(writer, phase.label + "_operations", metrics.getOperationCount(phase),
+                        "Operations in " + phase.label + " phase");
+                metricRow(writer, phase.label + "_time_ns", metrics.getTimeNanos(phase),
+                        "Time in " + phase.label + " phase in nanoseconds" +
+                        (phase == PhaseMetrics.Phase.EXPORT ? " (exports written before this file)" : ""));
+            }
 
             // Topological order
-            String topoOrderStr = topoOrder.stream()
-                    .map(String::valueOf)
-                    .collect(Collectors.joining(" -> "));
-            writer.println("topological_order," + topoOrderStr + ",Valid topological order");
-
-        } catch (IOException e) {
-            System.err.println("Error exporting metrics to CSV: " + e.getMessage());
+            writer.write("topological_order,").writeJoined(topoOrder, 0, topoOrder.length, " -> ")
+                    .write(",Valid topological order").endRow();
         }
     }
 
-    static void exportPathsToCSV(DAGShortestPath.Result shortest,
-                                 DAGShortestPath.Result longest,
-                                 String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("path_type,target_node,distance,path,is_critical");
+    private static void metricRow(CsvWriter writer, String metric, long value, String description)
+            throws IOException {
+        writer.write(metric).comma().write(value).comma().write(description).endRow();
+    }
+
+    static void exportPathsToCSV(DAGShortestPath.LongResult shortest,
+                                 DAGShortestPath.LongResult longest,
+                                 String filePath) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(filePath)) {
+            writer.write("path_type,target_node,distance,path,is_critical").endRow();
 
             // Critical path (longest path)
-            if (longest.criticalPath != null && !longest.criticalPath.isEmpty()) {
-                String criticalPathStr = longest.criticalPath.stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(" -> "));
-                writer.println("critical_path,-1," + longest.criticalPathLength +
-                        "," + criticalPathStr + ",true");
+            int[] criticalPath = longest.criticalPath;
+            if (criticalPath != null && criticalPath.length > 0) {
+                writer.write("critical_path,-1,").write(longest.criticalPathLength).comma()
+                        .writeJoined(criticalPath, 0, criticalPath.length, " -> ").write(",true").endRow();
             }
 
             // Shortest paths to all reachable nodes
-            for (int i = 0; i < shortest.distances.length; i++) {
-                if (shortest.distances[i] != Integer.MAX_VALUE && shortest.distances[i] != Integer.MIN_VALUE) {
-                    List<Integer> path = reconstructPath(shortest.predecessors, i);
-                    String pathStr = path.stream()
-                            .map(String::valueOf)
-                            .collect(Collectors.joining(" -> "));
-                    boolean isCritical = (longest.criticalPath != null &&
-                            longest.criticalPath.contains(i) &&
-                            path.equals(longest.criticalPath));
-                    writer.println("shortest_path," + i + "," + shortest.distances[i] +
-                            "," + pathStr + "," + isCritical);
-                }
-            }
+            writePathRows(writer, "shortest_path", shortest, criticalPath);
 
             // Longest paths to all reachable nodes
-            for (int i = 0; i < longest.distances.length; i++) {
-                if (longest.distances[i] != Integer.MIN_VALUE && longest.distances[i] != Integer.MAX_VALUE) {
-                    List<Integer> path = reconstructPath(longest.predecessors, i);
-                    String pathStr = path.stream()
-                            .map(String::valueOf)
-                            .collect(Collectors.joining(" -> "));
-                    boolean isCritical = (longest.criticalPath != null &&
-                            longest.criticalPath.contains(i) &&
-                            path.equals(longest.criticalPath));
-                    writer.println("longest_path," + i + "," + longest.distances[i] +
-                            "," + pathStr + "," + isCritical);
-                }
+            writePathRows(writer, "longest_path", longest, criticalPath);
+        }
+    }
+
+    /**
+     * One row per reached node, each path written straight from the predecessor tree. Only the
+     * last node of the critical path can end a path equal to it, so that is checked once.
+     */
+    private static void writePathRows(CsvWriter writer, String pathType, DAGShortestPath.LongResult result,
+                                      int[] criticalPath) throws IOException {
+        PathTree tree = result.pathTree();
+        int criticalEnd = tree.isPath(criticalPath) ? criticalPath[criticalPath.length - 1] : -1;
+        for (int i = 0; i < result.distances.length; i++) {
+            if (result.isReached(i)) {
+                writer.write(pathType).comma().write(i).comma().write(result.distances[i]).comma();
+                boolean[] first = {true};
+                tree.forEachOnPath(i, node -> {
+                    if (!first[0]) writer.write(" -> ");
+                    first[0] = false;
+                    writer.write(node);
+                });
+                writer.comma().write(i == criticalEnd).endRow();
             }
+        }
+    }
 
-        } catch (IOException e) {
-            System.err.println("Error exporting paths to CSV: " + e.getMessage());
+    /**
+     * Writes the CPM schedule with one row per task. Tasks in a cycle are scheduled together,
+     * so they share their component's values.
+     */
+    static void exportScheduleToCSV(SCC.Components components, CriticalPathMethod.Schedule schedule,
+                                    String filePath) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(filePath)) {
+            writer.write("node,component,earliest_start,latest_start,total_slack,free_slack,critical").endRow();
+            for (int v = 0; v < components.compId.length; v++) {
+                int c = components.compId[v];
+                writer.write(v).comma().write(c).comma()
+                        .write(schedule.earliestStart[c]).comma().write(schedule.latestStart[c]).comma()
+                        .write(schedule.totalSlack[c]).comma().write(schedule.freeSlack[c]).comma()
+                        .write(schedule.isCritical(c)).endRow();
+            }
         }
     }
 
-    static void exportFullResultsToJSON(GraphData graphData, List<List<Integer>> components,
-                                        List<List<Integer>> condensation, List<Integer> topoOrder,
-                                        DAGShortestPath.Result shortest, DAGShortestPath.Result longest,
-                                        Metrics metrics, String filePath) {
-        try {
-            Map<String, Object> results = new LinkedHashMap<>();
+    /**
+     * Writes the per-node and per-component arrays as columns of a {@link ColumnarResultFormat}
+     * directory. Distances and predecessors are indexed by component, as in the other exports.
+     */
+    static void exportColumnar(GraphInput input, SCC.Components components, int[] topoOrder,
+                               ParallelTopologicalSort.Waves waves, int sourceComponent,
+                               DAGShortestPath.LongResult shortest, DAGShortestPath.LongResult longest,
+                               CriticalPathMethod.Schedule schedule, ColumnarResultFormat.Compression compression,
+                               Path directory) throws IOException {
+        ColumnarResultFormat.Manifest manifest = new ColumnarResultFormat.Manifest();
+        manifest.dataset = directory.getFileName().toString();
+        manifest.nodes = input.n;
+        manifest.edges = input.edgeCount();
+        manifest.source = input.source;
+        manifest.sourceComponent = sourceComponent;
+        manifest.componentCount = components.count;
+        manifest.criticalPathLength = longest.criticalPathLength;
+        manifest.projectDuration = schedule.projectDuration;
+        manifest.unreachedShortest = DAGShortestPath.LongResult.UNREACHED_SHORTEST;
+        manifest.unreachedLongest = DAGShortestPath.LongResult.UNREACHED_LONGEST;
+
+        try (ColumnarResultFormat.Writer writer = new ColumnarResultFormat.Writer(directory, compression, manifest)) {
+            writer.ints("comp_id", components.compId)
+                    .ints("component_offsets", components.offsets, 0, components.count + 1)
+                    .ints("component_nodes", components.nodes)
+                    .ints("topo_order", topoOrder)
+                    .longs("shortest_distance", shortest.distances)
+                    .ints("shortest_predecessor", shortest.predecessors)
+                    .longs("longest_distance", longest.distances)
+                    .ints("longest_predecessor", longest.predecessors)
+                    .ints("critical_path", longest.criticalPath == null ? new int[0] : longest.criticalPath)
+                    .longs("earliest_start", schedule.earliestStart)
+                    .longs("latest_start", schedule.latestStart)
+                    .longs("total_slack", schedule.totalSlack)
+                    .longs("free_slack", schedule.freeSlack)
+                    .ints("zero_slack_components", schedule.criticalTasks);
+            if (waves != null) {
+                writer.ints("wave_offsets", waves.waveOffsets, 0, waves.count() + 1);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Writes the full result as pretty-printed JSON, streaming each section straight from the
+     * result arrays. The layout matches what Gson's pretty printer produced for the same data.
+     */
+    static void exportFullResultsToJSON(GraphInput input, SCC.Components components,
+                                        CSRGraph condensation, int[] topoOrder,
+                                        DAGShortestPath.LongResult shortest, DAGShortestPath.LongResult longest,
+                                        CriticalPathMethod.Schedule schedule, PhaseMetrics metrics,
+                                        String filePath) throws IOException {
+        try (JsonWriter out = new JsonWriter(new BufferedWriter(new FileWriter(filePath), 1 << 16))) {
+            out.setIndent("  ");
+            out.setHtmlSafe(true);
+            out.setSerializeNulls(false);
+            out.beginObject();
 
             // Graph info
-            results.put("dataset", getBaseName(filePath).replace("_full", ""));
-            results.put("nodes", graphData.n);
-            results.put("edges", graphData.edges.size());
-            results.put("source", graphData.source);
-            results.put("weight_model", graphData.weightModel);
+            out.name("dataset").value(getBaseName(filePath).replace("_full", ""));
+            out.name("nodes").value(input.n);
+            out.name("edges").value(input.edgeCount());
+            out.name("source").value(input.source);
+            out.name("weight_model").value(input.weightModel);
 
             // SCC results
-            results.put("scc_count", components.size());
-            results.put("components", components);
-            results.put("largest_scc_size", components.stream().mapToInt(List::size).max().orElse(0));
-            results.put("smallest_scc_size", components.stream().mapToInt(List::size).min().orElse(0));
-            results.put("average_scc_size", String.format("%.2f",
-                    components.stream().mapToInt(List::size).average().orElse(0)));
+            out.name("scc_count").value(components.count);
+            out.name("components").beginArray();
+            for (int c = 0; c < components.count; c++) {
+                writeArray(out, components.nodes, components.offsets[c], components.offsets[c + 1]);
+            }
+            out.endArray();
+            out.name("largest_scc_size").value(components.largestSize());
+            out.name("smallest_scc_size").value(components.smallestSize());
+            out.name("average_scc_size").value(String.format("%.2f", components.averageSize()));
 
             // Condensation graph
-            results.put("condensation_nodes", condensation.size());
-            results.put("condensation_edges", condensation.stream().mapToInt(List::size).sum());
-            results.put("condensation_graph", condensation);
+            out.name("condensation_nodes").value(condensation.n);
+            out.name("condensation_edges").value(condensation.edgeCount());
+            out.name("condensation_graph").beginArray();
+            for (int u = 0; u < condensation.n; u++) {
+                writeArray(out, condensation.targets, condensation.offsets[u], condensation.offsets[u + 1]);
+            }
+            out.endArray();
 
             // Topological order
-            results.put("topological_order", topoOrder);
+            out.name("topological_order");
+            writeArray(out, topoOrder, 0, topoOrder.length);
 
             // Path results
-            Map<String, Object> pathResults = new LinkedHashMap<>();
-            pathResults.put("critical_path_length", longest.criticalPathLength);
-            pathResults.put("critical_path", longest.criticalPath);
-
-            Map<String, Object> shortestPaths = new LinkedHashMap<>();
-            for (int i = 0; i < shortest.distances.length; i++) {
-                if (shortest.distances[i] != Integer.MAX_VALUE) {
-                    Map<String, Object> pathInfo = new LinkedHashMap<>();
-                    pathInfo.put("distance", shortest.distances[i]);
-                    pathInfo.put("path", reconstructPath(shortest.predecessors, i));
-                    shortestPaths.put("node_" + i, pathInfo);
-                }
+            out.name("paths").beginObject();
+            out.name("critical_path_length").value(longest.criticalPathLength);
+            if (longest.criticalPath != null) {
+                out.name("critical_path");
+                writeArray(out, longest.criticalPath, 0, longest.criticalPath.length);
             }
-            pathResults.put("shortest_paths", shortestPaths);
-
-            Map<String, Object> longestPaths = new LinkedHashMap<>();
-            for (int i = 0; i < longest.distances.length; i++) {
-                if (longest.distances[i] != Integer.MIN_VALUE && longest.distances[i] != Integer.MAX_VALUE) {
-                    Map<String, Object> pathInfo = new LinkedHashMap<>();
-                    pathInfo.put("distance", longest.distances[i]);
-                    pathInfo.put("path", reconstructPath(longest.predecessors, i));
-                    longestPaths.put("node_" + i, pathInfo);
-                }
-            }
-            pathResults.put("longest_paths", longestPaths);
-
-            results.put("paths", pathResults);
+            out.name("shortest_paths");
+            writePaths(out, shortest);
+            out.name("longest_paths");
+            writePaths(out, longest);
+            out.endObject();
+
+            // CPM schedule summary; per-component values are in the schedule CSV
+            out.name("schedule").beginObject();
+            out.name("project_duration").value(schedule.projectDuration);
+            out.name("zero_slack_components");
+            writeArray(out, schedule.criticalTasks, 0, schedule.criticalTasks.length);
+            out.endObject();
 
             // Performance metrics
-            Map<String, Object> performance = new LinkedHashMap<>();
-            performance.put("operations", metrics.getOperationCount());
-            performance.put("time_nanos", metrics.getTimeNanos());
-            results.put("performance", performance);
-
-            // Write JSON with pretty printing
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            try (FileWriter writer = new FileWriter(filePath)) {
-                gson.toJson(results, writer);
+            out.name("performance").beginObject();
+            out.name("operations").value(metrics.getTotalOperationCount());
+            out.name("time_nanos").value(metrics.getTotalTimeNanos());
+            out.name("phases").beginObject();
+            for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+                out.name(phase.label).beginObject();
+                out.name("operations").value(metrics.getOperationCount(phase));
+                out.name("time_nanos").value(metrics.getTimeNanos(phase));
+                out.endObject();
             }
+            out.endObject();
+            out.endObject();
 
-        } catch (IOException e) {
-            System.err.println("Error exporting full results to JSON: " + e.getMessage());
+            out.endObject();
         }
     }
 
-    static List<Integer> reconstructPath(int[] predecessors, int endNode) {
-        List<Integer> path = new ArrayList<>();
-        for (int at = endNode; at != -1; at = predecessors[at]) {
-            path.add(at);
-        }
-        Collections.reverse(path);
-        return path;
-    }
-
-    private static List<List<int[]>> createWeightedCondensation(
-            List<List<Integer>> condensation,
-            List<List<Integer>> components,
-            List<GraphData.Edge> edges) {
-
-        List<List<int[]>> weighted = new ArrayList<>();
-        for (int i = 0; i < condensation.size(); i++) {
-            weighted.add(new ArrayList<>());
-        }
-
-        // Map original nodes to their component IDs
-        int n = components.stream().mapToInt(List::size).sum();
-        int[] compId = new int[n];
-        for (int i = 0; i < components.size(); i++) {
-            for (int node : components.get(i)) {
-                compId[node] = i;
-            }
-        }
-
-        // Create weighted edges between components
-        // Use maximum weight of any edge between components
-        Map<String, Integer> compWeights = new HashMap<>();
-        for (GraphData.Edge edge : edges) {
-            int compU = compId[edge.u];
-            int compV = compId[edge.v];
-            if (compU != compV) {
-                String key = compU + "->" + compV;
-                compWeights.put(key, Math.max(compWeights.getOrDefault(key, 0), edge.w));
+    private static void writePaths(JsonWriter out, DAGShortestPath.LongResult result) throws IOException {
+        PathTree tree = result.pathTree();
+        out.beginObject();
+        for (int i = 0; i < result.distances.length; i++) {
+            if (result.isReached(i)) {
+                out.name("node_" + i).beginObject();
+                out.name("distance").value(result.distances[i]);
+                out.name("path").beginArray();
+                tree.forEachOnPath(i, node -> out.value(node));
+                out.endArray();
+                out.endObject();
             }
         }
+        out.endObject();
+    }
 
-        // Build weighted condensation graph
-        for (int u = 0; u < condensation.size(); u++) {
-            for (int v : condensation.get(u)) {
-                String key = u + "->" + v;
-                int weight = compWeights.getOrDefault(key, 1);
-                weighted.get(u).add(new int[]{v, weight});
-            }
+    private static void writeArray(JsonWriter out, int[] values, int from, int to) throws IOException {
+        out.beginArray();
+        for (int i = from; i < to; i++) {
+            out.value(values[i]);
         }
-
-        return weighted;
+        out.endArray();
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,18 @@
 package graph;
 
 public interface Metrics {
+    /**
+     * Metrics that record nothing. Algorithms count operations in local variables and report
+     * them once per call through {@link #addOperationCount(long)}, so with this instance the
+     * JIT can drop the counting from their loops entirely.
+     */
+    Metrics NOOP = NoopMetrics.INSTANCE;
+
     void reset();
     long getOperationCount();
     long getTimeNanos();
     void incrementOperationCount();
+
+    /** Adds {@code count} operations at once; implementations must not loop over them. */
+    void addOperationCount(long count);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package graph;
+
+/**
+ * The {@link Metrics#NOOP} implementation.
+ */
+final class NoopMetrics implements Metrics {
+    static final NoopMetrics INSTANCE = new NoopMetrics();
+
+    private NoopMetrics() {
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public long getOperationCount() {
+        return 0;
+    }
+
+    @Override
+    public long getTimeNanos() {
+        return 0;
+    }
+
+    @Override
+    public void incrementOperationCount() {
+    }
+
+    @Override
+    public void addOperationCount(long count) {
+    }
+}
@@ -0,0 +1,132 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics registry with a separate operation counter and accumulated wall time for each
+ * pipeline phase. All counters are {@link LongAdder}s, so phases may run and report from
+ * several threads at once.
+ *
+ * Algorithms receive the {@link Metrics} view of their phase from {@link #forPhase(Phase)};
+ * callers bracket the phase with {@link #start(Phase)} and {@link Timer#stop()} to record its
+ * duration. A phase that throws records no time, since its run produces no results. With operation
+ * counting disabled that view is {@link Metrics#NOOP} and only phase times are recorded.
+ */
+public class PhaseMetrics {
+    public enum Phase {
+        LOAD("load"),
+        SCC("scc"),
+        CONDENSATION("condensation"),
+        TOPO("topo"),
+        PATHS("paths"),
+        EXPORT("export");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Adds the time between its creation and {@link #stop()} to one phase.
+     */
+    public final class Timer {
+        private final Phase phase;
+        private final long start = System.nanoTime();
+
+        private Timer(Phase phase) {
+            this.phase = phase;
+        }
+
+        public void stop() {
+            counters.get(phase).timeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static final class PhaseCounter implements Metrics {
+        private final LongAdder operations = new LongAdder();
+        private final LongAdder timeNanos = new LongAdder();
+
+        @Override
+        public void reset() {
+            operations.reset();
+            timeNanos.reset();
+        }
+
+        @Override
+        public long getOperationCount() {
+            return operations.sum();
+        }
+
+        @Override
+        public long getTimeNanos() {
+            return timeNanos.sum();
+        }
+
+        @Override
+        public void incrementOperationCount() {
+            operations.increment();
+        }
+
+        @Override
+        public void addOperationCount(long count) {
+            operations.add(count);
+        }
+    }
+
+    private final EnumMap<Phase, PhaseCounter> counters = new EnumMap<>(Phase.class);
+    private final boolean countOperations;
+
+    public PhaseMetrics() {
+        this(true);
+    }
+
+    public PhaseMetrics(boolean countOperations) {
+        this.countOperations = countOperations;
+        for (Phase phase : Phase.values()) {
+            counters.put(phase, new PhaseCounter());
+        }
+    }
+
+    public Metrics forPhase(Phase phase) {
+        return countOperations ? counters.get(phase) : Metrics.NOOP;
+    }
+
+    public Timer start(Phase phase) {
+        return new Timer(phase);
+    }
+
+    /**
+     * Adds a phase measured elsewhere, such as one restored with cached results.
+     */
+    public void record(Phase phase, long operations, long timeNanos) {
+        counters.get(phase).operations.add(operations);
+        counters.get(phase).timeNanos.add(timeNanos);
+    }
+
+    public long getOperationCount(Phase phase) {
+        return counters.get(phase).getOperationCount();
+    }
+
+    public long getTimeNanos(Phase phase) {
+        return counters.get(phase).getTimeNanos();
+    }
+
+    public long getTotalOperationCount() {
+        long total = 0;
+        for (PhaseCounter counter : counters.values()) {
+            total += counter.getOperationCount();
+        }
+        return total;
+    }
+
+    public long getTotalTimeNanos() {
+        long total = 0;
+        for (PhaseCounter counter : counters.values()) {
+            total += counter.getTimeNanos();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,516 @@
+package graph;
+
+import graph.dagsp.CriticalPathMethod;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.MultiSourceDAGPaths;
+import graph.io.ColumnarResultFormat;
+import graph.io.GraphInput;
+import graph.scc.SCC;
+import graph.topo.ParallelTopologicalSort;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of analysis results, addressed by the content of the input graph.
+ *
+ * An entry's key is the SHA-256 of {@link #VERSION}, the options that change the results and
+ * the SHA-256 of the input file, so identical graphs share an entry whatever they are called,
+ * and any change to the input, the algorithms or those options misses. An entry is a directory
+ * {@code <root>/<key>/} holding every array of a {@link Main.Analysis}, the input graph
+ * included, as {@link ColumnarResultFormat} columns, plus {@code analysis.json} with the
+ * scalars and the phase metrics of the run that computed them. Restoring an entry skips
+ * parsing and all the analysis phases; only the export runs again.
+ *
+ * Separately, {@code <root>/outputs/<dataset>.json} records the key a dataset's files under
+ * {@code results/} were last written from. A dataset is named by its path relative to the data
+ * directory without the extension, such as {@code city/north}, so equally named files in
+ * different directories keep separate stamps and outputs. The stamp also holds the size and
+ * modification time of the input and of each of those files. While all of them are unchanged
+ * the dataset is up to date and nothing is read or written at all. The input's size and modification time also stand in for
+ * rehashing it, as they do for make or git.
+ */
+public class ResultCache {
+    /** Bump whenever an algorithm or an export changes its results, so that older entries miss. */
+    static final int VERSION = 2;
+    static final Path DEFAULT_ROOT = Paths.get("results", ".cache");
+
+    private static final String HEADER = "analysis.json";
+    private static final String OUTPUTS = "outputs";
+    private static final int IO_BUFFER = 1 << 20;
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
+
+    /** Scalars of a cached analysis, stored next to its columns. */
+    static class Header {
+        int version;
+        String key;
+        int nodes;
+        int source;
+        String weightModel;
+        int componentCount;
+        int sourceComponent;
+        long criticalPathLength;
+        long projectDuration;
+        Map<String, Long> operations = new LinkedHashMap<>();
+        Map<String, Long> timeNanos = new LinkedHashMap<>();
+    }
+
+    /** Size and modification time of a file, used to tell whether it changed. */
+    static class FileState {
+        String file;
+        long size;
+        long modified;
+
+        static FileState of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            FileState state = new FileState();
+            state.file = file.toString();
+            state.size = attributes.size();
+            state.modified = attributes.lastModifiedTime().toMillis();
+            return state;
+        }
+
+        boolean matches(FileState other) {
+            return other != null && file.equals(other.file) && size == other.size && modified == other.modified;
+        }
+    }
+
+    /** What a dataset's result files were last written from, with a summary for reporting. */
+    static class Stamp {
+        String key;
+        FileState input;
+        String inputHash;
+        String exports;
+        List<FileState> outputs = new ArrayList<>();
+        int nodes;
+        int edges;
+        int sccCount;
+        long criticalPathLength;
+    }
+
+    /** The cache state of one dataset, found by {@link #lookup}. */
+    static final class Lookup {
+        final String key;
+        final FileState input;
+        final String inputHash;
+        /** The dataset's stamp when its result files are up to date, otherwise null. */
+        final Stamp current;
+        /** Whether an entry for the key exists. */
+        final boolean cached;
+
+        Lookup(String key, FileState input, String inputHash, Stamp current, boolean cached) {
+            this.key = key;
+            this.input = input;
+            this.inputHash = inputHash;
+            this.current = current;
+            this.cached = cached;
+        }
+    }
+
+    private final Path root;
+
+    ResultCache(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Finds the key for {@code input} analyzed with {@code options}, and whether the results
+     * for it are cached and the files of {@code dataset} are still the ones written from them.
+     */
+    Lookup lookup(Path input, String dataset, Main.Options options) throws IOException {
+        FileState state = FileState.of(input.toAbsolutePath().normalize());
+        Stamp stamp = readStamp(dataset);
+        String inputHash = stamp != null && state.matches(stamp.input) ? stamp.inputHash : sha256(input);
+        String key = key(inputHash, options);
+
+        Stamp current = null;
+        if (stamp != null && key.equals(stamp.key) && exports(options).equals(stamp.exports)
+                && outputsUnchanged(stamp, Main.outputFiles(dataset, options))) {
+            current = stamp;
+            if (!state.matches(stamp.input)) {
+                // Touched but unchanged; remember the new state so the next run need not rehash
+                stamp.input = state;
+                writeStamp(dataset, stamp);
+            }
+        }
+        return new Lookup(key, state, inputHash, current, Files.isRegularFile(root.resolve(key).resolve(HEADER)));
+    }
+
+    /**
+     * Restores a cached analysis. Its metrics are those of the run that computed it.
+     */
+    Main.Analysis load(Lookup lookup) throws IOException {
+        Path directory = root.resolve(lookup.key);
+        Header header;
+        try (Reader in = Files.newBufferedReader(directory.resolve(HEADER), StandardCharsets.UTF_8)) {
+            header = GSON.fromJson(in, Header.class);
+        }
+        if (header == null || header.version != VERSION || !lookup.key.equals(header.key)) {
+            throw new IOException("Stale or foreign cache entry in " + directory);
+        }
+        ColumnarResultFormat.Manifest manifest = ColumnarResultFormat.readManifest(directory);
+        Map<String, ColumnarResultFormat.Column> columns = new HashMap<>();
+        for (ColumnarResultFormat.Column column : manifest.columns) {
+            columns.put(column.name, column);
+        }
+
+        CSRGraph graph = new CSRGraph(header.nodes, ints(directory, columns, "graph_offsets"),
+                ints(directory, columns, "graph_targets"), ints(directory, columns, "graph_weights"));
+        GraphInput input = new GraphInput(header.nodes, header.source, header.weightModel, graph);
+        SCC.Components components = new SCC.Components(header.componentCount,
+                ints(directory, columns, "comp_id"), ints(directory, columns, "component_offsets"),
+                ints(directory, columns, "component_nodes"));
+        CSRGraph condensation = new CSRGraph(header.componentCount,
+                ints(directory, columns, "condensation_offsets"), ints(directory, columns, "condensation_targets"),
+                ints(directory, columns, "condensation_weights"));
+        int[] topoOrder = ints(directory, columns, "topo_order");
+        ParallelTopologicalSort.Waves waves = columns.containsKey("wave_offsets")
+                ? new ParallelTopologicalSort.Waves(topoOrder, ints(directory, columns, "wave_offsets")) : null;
+
+        DAGShortestPath.LongResult shortest = new DAGShortestPath.LongResult(
+                longs(directory, columns, "shortest_distance"), ints(directory, columns, "shortest_predecessor"));
+        DAGShortestPath.LongResult longest = new DAGShortestPath.LongResult(
+                longs(directory, columns, "longest_distance"), ints(directory, columns, "longest_predecessor"));
+        longest.criticalPathLength = header.criticalPathLength;
+        if (columns.containsKey("critical_path")) {
+            longest.criticalPath = ints(directory, columns, "critical_path");
+        }
+
+        CriticalPathMethod.Schedule schedule = new CriticalPathMethod.Schedule(null,
+                longs(directory, columns, "earliest_start"), longs(directory, columns, "latest_start"),
+                longs(directory, columns, "total_slack"), longs(directory, columns, "free_slack"),
+                header.projectDuration, ints(directory, columns, "zero_slack_components"));
+        MultiSourceDAGPaths.Matrix shortestMatrix = matrix(directory, columns, "shortest_matrix", header.componentCount);
+        MultiSourceDAGPaths.Matrix longestMatrix = matrix(directory, columns, "longest_matrix", header.componentCount);
+
+        PhaseMetrics metrics = new PhaseMetrics();
+        for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+            if (phase != PhaseMetrics.Phase.EXPORT) {
+                metrics.record(phase, header.operations.getOrDefault(phase.label, 0L),
+                        header.timeNanos.getOrDefault(phase.label, 0L));
+            }
+        }
+        return new Main.Analysis(input, components, condensation, topoOrder, waves, header.sourceComponent,
+                shortest, longest, schedule, shortestMatrix, longestMatrix, metrics);
+    }
+
+    /**
+     * Stores a freshly computed analysis under the lookup's key. The entry is written to a
+     * temporary directory and moved into place, so concurrent writers and interrupted runs never
+     * leave a partial entry behind.
+     */
+    void store(Lookup lookup, Main.Analysis analysis) throws IOException {
+        Path target = root.resolve(lookup.key);
+        if (Files.isDirectory(target)) {
+            return;
+        }
+        Files.createDirectories(root);
+        Path directory = Files.createTempDirectory(root, lookup.key + ".tmp");
+        try {
+            writeEntry(directory, lookup.key, analysis);
+            moveIntoPlace(directory, target);
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Moves a written entry to {@code target}, unless another job stored the same results there
+     * first. Linux reports a rename onto a non-empty directory as a plain FileSystemException
+     * ("Directory not empty") rather than one of its more specific subclasses.
+     */
+    static void moveIntoPlace(Path directory, Path target) throws IOException {
+        try {
+            Files.move(directory, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileSystemException e) {
+            if (!Files.isDirectory(target)) {
+                throw e;
+            }
+        }
+    }
+
+    private static void writeEntry(Path directory, String key, Main.Analysis analysis) throws IOException {
+        ColumnarResultFormat.Manifest manifest = new ColumnarResultFormat.Manifest();
+        manifest.dataset = key;
+        manifest.nodes = analysis.input.n;
+        manifest.edges = analysis.input.edgeCount();
+        manifest.source = analysis.input.source;
+        manifest.sourceComponent = analysis.source;
+        manifest.componentCount = analysis.components.count;
+        manifest.criticalPathLength = analysis.longest.criticalPathLength;
+        manifest.projectDuration = analysis.schedule.projectDuration;
+        manifest.unreachedShortest = DAGShortestPath.LongResult.UNREACHED_SHORTEST;
+        manifest.unreachedLongest = DAGShortestPath.LongResult.UNREACHED_LONGEST;
+
+        CSRGraph graph = analysis.input.graph;
+        SCC.Components components = analysis.components;
+        try (ColumnarResultFormat.Writer writer = new ColumnarResultFormat.Writer(directory,
+                ColumnarResultFormat.Compression.NONE, manifest)) {
+            writer.ints("graph_offsets", graph.offsets, 0, graph.n + 1)
+                    .ints("graph_targets", graph.targets, 0, graph.edgeCount())
+                    .ints("graph_weights", graph.weights, 0, graph.edgeCount())
+                    .ints("comp_id", components.compId)
+                    .ints("component_offsets", components.offsets, 0, components.count + 1)
+                    .ints("component_nodes", components.nodes)
+                    .ints("condensation_offsets", analysis.condensation.offsets, 0, analysis.condensation.n + 1)
+                    .ints("condensation_targets", analysis.condensation.targets, 0, analysis.condensation.edgeCount())
+                    .ints("condensation_weights", analysis.condensation.weights, 0, analysis.condensation.edgeCount())
+                    .ints("topo_order", analysis.topoOrder)
+                    .longs("shortest_distance", analysis.shortest.distances)
+                    .ints("shortest_predecessor", analysis.shortest.predecessors)
+                    .longs("longest_distance", analysis.longest.distances)
+                    .ints("longest_predecessor", analysis.longest.predecessors)
+                    .longs("earliest_start", analysis.schedule.earliestStart)
+                    .longs("latest_start", analysis.schedule.latestStart)
+                    .longs("total_slack", analysis.schedule.totalSlack)
+                    .longs("free_slack", analysis.schedule.freeSlack)
+                    .ints("zero_slack_components", analysis.schedule.criticalTasks);
+            if (analysis.longest.criticalPath != null) {
+                writer.ints("critical_path", analysis.longest.criticalPath);
+            }
+            if (analysis.waves != null) {
+                writer.ints("wave_offsets", analysis.waves.waveOffsets, 0, analysis.waves.count() + 1);
+            }
+            writeMatrix(writer, "shortest_matrix", analysis.shortestMatrix);
+            writeMatrix(writer, "longest_matrix", analysis.longestMatrix);
+            writer.finish();
+        }
+
+        Header header = new Header();
+        header.version = VERSION;
+        header.key = key;
+        header.nodes = analysis.input.n;
+        header.source = analysis.input.source;
+        header.weightModel = analysis.input.weightModel;
+        header.componentCount = components.count;
+        header.sourceComponent = analysis.source;
+        header.criticalPathLength = analysis.longest.criticalPathLength;
+        header.projectDuration = analysis.schedule.projectDuration;
+        for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+            if (phase != PhaseMetrics.Phase.EXPORT) {
+                header.operations.put(phase.label, analysis.metrics.getOperationCount(phase));
+                header.timeNanos.put(phase.label, analysis.metrics.getTimeNanos(phase));
+            }
+        }
+        try (Writer out = Files.newBufferedWriter(directory.resolve(HEADER), StandardCharsets.UTF_8)) {
+            GSON.toJson(header, out);
+        }
+    }
+
+    /** Deletes the lookup's entry, for example after it failed to load. */
+    void discard(Lookup lookup) throws IOException {
+        deleteRecursively(root.resolve(lookup.key));
+    }
+
+    /**
+     * Records that the files of {@code dataset} were just written from the lookup's results.
+     */
+    void recordOutputs(Lookup lookup, String dataset, Main.Options options, Main.Analysis analysis)
+            throws IOException {
+        Stamp stamp = new Stamp();
+        stamp.key = lookup.key;
+        stamp.input = lookup.input;
+        stamp.inputHash = lookup.inputHash;
+        stamp.exports = exports(options);
+        for (Path file : Main.outputFiles(dataset, options)) {
+            stamp.outputs.add(FileState.of(file));
+        }
+        stamp.nodes = analysis.input.n;
+        stamp.edges = analysis.input.edgeCount();
+        stamp.sccCount = analysis.components.count;
+        stamp.criticalPathLength = analysis.longest.criticalPathLength;
+
+        writeStamp(dataset, stamp);
+    }
+
+    private void writeStamp(String dataset, Stamp stamp) throws IOException {
+        Path file = stampFile(dataset);
+        Path directory = Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            GSON.toJson(stamp, out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes entries no dataset's result files were written from, and leftovers of
+     * interrupted writes.
+     *
+     * @return the number of entries deleted
+     */
+    int prune() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>();
+        Path outputs = root.resolve(OUTPUTS);
+        if (Files.isDirectory(outputs)) {
+            try (Stream<Path> stamps = Files.walk(outputs)) {
+                for (Path file : stamps.filter(f -> f.toString().endsWith(".json")).collect(Collectors.toList())) {
+                    Stamp stamp = readStamp(file);
+                    if (stamp != null) {
+                        referenced.add(stamp.key);
+                    }
+                }
+            }
+        }
+
+        int deleted = 0;
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(root)) {
+            entries = files.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+        for (Path entry : entries) {
+            String name = entry.getFileName().toString();
+            if (!name.equals(OUTPUTS) && !referenced.contains(name)) {
+                deleteRecursively(entry);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /** Options that change analysis results; thread counts and output formats do not. */
+    static String analysisOptions(Main.Options options) {
+        String sources = options.allSources ? "all"
+                : options.sources == null ? "none"
+                : Arrays.stream(options.sources).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        return "scc=" + (options.parallelSCC ? "parallel" : "tarjan")
+                + ";topo=" + (options.parallelTopo ? "parallel" : "kahn")
+                + ";sources=" + sources
+                + ";count-operations=" + options.countOperations;
+    }
+
+    private static String exports(Main.Options options) {
+        return "output=" + (options.columnar ? "columnar" : "full") + ";compress=" + options.compression.label;
+    }
+
+    static String key(String inputHash, Main.Options options) {
+        MessageDigest digest = sha256();
+        digest.update(("result-cache-v" + VERSION + "\n" + analysisOptions(options) + "\n" + inputHash)
+                .getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest());
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[IO_BUFFER];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] digits = "0123456789abcdef".toCharArray();
+        char[] out = new char[2 * bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            out[2 * i] = digits[(bytes[i] >> 4) & 0xF];
+            out[2 * i + 1] = digits[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+
+    private Stamp readStamp(String dataset) {
+        return readStamp(stampFile(dataset));
+    }
+
+    private Path stampFile(String dataset) {
+        return root.resolve(OUTPUTS).resolve(dataset + ".json");
+    }
+
+    /** A missing or unreadable stamp only means the dataset is treated as out of date. */
+    private static Stamp readStamp(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(in, Stamp.class);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean outputsUnchanged(Stamp stamp, List<Path> expected) throws IOException {
+        if (stamp.outputs == null || stamp.outputs.size() != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Path file = expected.get(i);
+            if (!Files.isRegularFile(file) || !FileState.of(file).matches(stamp.outputs.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] ints(Path directory, Map<String, ColumnarResultFormat.Column> columns, String name)
+            throws IOException {
+        ColumnarResultFormat.Column column = columns.get(name);
+        if (column == null) {
+            throw new IOException("Cache entry " + directory + " has no column " + name);
+        }
+        return ColumnarResultFormat.readInts(directory, column);
+    }
+
+    private static long[] longs(Path directory, Map<String, ColumnarResultFormat.Column> columns, String name)
+            throws IOException {
+        ColumnarResultFormat.Column column = columns.get(name);
+        if (column == null) {
+            throw new IOException("Cache entry " + directory + " has no column " + name);
+        }
+        return ColumnarResultFormat.readLongs(directory, column);
+    }
+
+    private static void writeMatrix(ColumnarResultFormat.Writer writer, String name, MultiSourceDAGPaths.Matrix matrix)
+            throws IOException {
+        if (matrix != null) {
+            writer.ints(name + "_sources", matrix.sources).longs(name, matrix.distances);
+        }
+    }
+
+    private static MultiSourceDAGPaths.Matrix matrix(Path directory, Map<String, ColumnarResultFormat.Column> columns,
+                                                    String name, int n) throws IOException {
+        if (!columns.containsKey(name)) {
+            return null;
+        }
+        return new MultiSourceDAGPaths.Matrix(ints(directory, columns, name + "_sources"), n,
+                longs(directory, columns, name));
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
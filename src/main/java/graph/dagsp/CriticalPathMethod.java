@@ -0,0 +1,140 @@
+package graph.dagsp;
+
+import graph.CSRGraph;
+import graph.Metrics;
+
+/**
+ * Critical path method schedule of a DAG of tasks: earliest and latest start, total and free
+ * slack for every task, from one forward and one backward sweep over a topological order.
+ *
+ * An edge {@code u -> v} of weight {@code w} means {@code v} may start no earlier than
+ * {@code w} after {@code u} finishes. Tasks take their duration from an optional array and
+ * are otherwise instantaneous, which is the edge weight model of the datasets: all the work
+ * sits on the edges. Every task with no predecessor may start at 0, and the project ends when
+ * the last task finishes.
+ *
+ * The forward sweep pushes each task's earliest finish along its out-edges. The backward sweep
+ * visits tasks in reverse order and pulls the latest start and the earliest start of the
+ * successors back over the same out-edges, so the reverse graph is never built and each
+ * adjacency list is read once per sweep. Both are O(n + m) on primitive arrays.
+ */
+public class CriticalPathMethod {
+    private final Metrics metrics;
+
+    public CriticalPathMethod(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Per-task schedule arrays, indexed like the graph's nodes.
+     */
+    public static class Schedule {
+        public final long[] durations;
+        public final long[] earliestStart;
+        public final long[] latestStart;
+        /** How far a task can slip without delaying the project. */
+        public final long[] totalSlack;
+        /** How far a task can slip without delaying any successor's earliest start. */
+        public final long[] freeSlack;
+        public final long projectDuration;
+        /** Tasks with zero total slack, in topological order. */
+        public final int[] criticalTasks;
+
+        public Schedule(long[] durations, long[] earliestStart, long[] latestStart, long[] totalSlack,
+                        long[] freeSlack, long projectDuration, int[] criticalTasks) {
+            this.durations = durations;
+            this.earliestStart = earliestStart;
+            this.latestStart = latestStart;
+            this.totalSlack = totalSlack;
+            this.freeSlack = freeSlack;
+            this.projectDuration = projectDuration;
+            this.criticalTasks = criticalTasks;
+        }
+
+        public long duration(int task) {
+            return durations == null ? 0 : durations[task];
+        }
+
+        public long earliestFinish(int task) {
+            return earliestStart[task] + duration(task);
+        }
+
+        public long latestFinish(int task) {
+            return latestStart[task] + duration(task);
+        }
+
+        public boolean isCritical(int task) {
+            return totalSlack[task] == 0;
+        }
+    }
+
+    /**
+     * Schedules instantaneous tasks, with all durations on the edges.
+     */
+    public Schedule schedule(CSRGraph dag, int[] topoOrder) {
+        return schedule(dag, topoOrder, null);
+    }
+
+    /**
+     * @param durations non-negative duration of each task, or null for instantaneous tasks
+     */
+    public Schedule schedule(CSRGraph dag, int[] topoOrder, long[] durations) {
+        int n = dag.n;
+        int[] offsets = dag.offsets;
+        int[] targets = dag.targets;
+        int[] weights = dag.weights;
+        long[] earliest = new long[n];
+        long[] latest = new long[n];
+        long[] totalSlack = new long[n];
+        long[] freeSlack = new long[n];
+        long ops = 0;
+
+        // Forward: earliest starts begin at 0 and only grow, so tasks without predecessors stay at 0
+        long projectDuration = 0;
+        for (int u : topoOrder) {
+            ops++;
+            long finish = earliest[u] + (durations == null ? 0 : durations[u]);
+            projectDuration = Math.max(projectDuration, finish);
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                ops++;
+                int v = targets[e];
+                long start = finish + weights[e];
+                if (start > earliest[v]) {
+                    earliest[v] = start;
+                }
+            }
+        }
+
+        // Backward: successors are final before their predecessors are visited
+        int critical = 0;
+        for (int i = topoOrder.length - 1; i >= 0; i--) {
+            ops++;
+            int u = topoOrder[i];
+            long duration = durations == null ? 0 : durations[u];
+            long latestFinish = projectDuration;
+            long freeFinish = projectDuration;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                ops++;
+                int v = targets[e];
+                latestFinish = Math.min(latestFinish, latest[v] - weights[e]);
+                freeFinish = Math.min(freeFinish, earliest[v] - weights[e]);
+            }
+            latest[u] = latestFinish - duration;
+            totalSlack[u] = latest[u] - earliest[u];
+            freeSlack[u] = freeFinish - duration - earliest[u];
+            if (totalSlack[u] == 0) {
+                critical++;
+            }
+        }
+
+        int[] criticalTasks = new int[critical];
+        int k = 0;
+        for (int u : topoOrder) {
+            if (totalSlack[u] == 0) {
+                criticalTasks[k++] = u;
+            }
+        }
+        metrics.addOperationCount(ops);
+        return new Schedule(durations, earliest, latest, totalSlack, freeSlack, projectDuration, criticalTasks);
+    }
+}
@@ -1,5 +1,6 @@
 package graph.dagsp;
 
+import graph.CSRGraph;
 import graph.Metrics;
 import java.util.*;
 
@@ -23,21 +24,113 @@ public class DAGShortestPath {
         }
     }
 
-    public Result shortestPath(List<List<int[]>> graph, List<Integer> topoOrder, int source) {
-        metrics.reset();
-        long startTime = System.nanoTime();
+    /**
+     * Path results with {@code long} distances. Unreached nodes hold {@link #UNREACHED_SHORTEST}
+     * or {@link #UNREACHED_LONGEST}; sums that would overflow saturate at
+     * {@code Long.MAX_VALUE - 1} or {@code Long.MIN_VALUE + 1}, so they never wrap around or
+     * collide with the unreached markers.
+     */
+    public static class LongResult {
+        public static final long UNREACHED_SHORTEST = Long.MAX_VALUE;
+        public static final long UNREACHED_LONGEST = Long.MIN_VALUE;
+
+        public final long[] distances;
+        public final int[] predecessors;
+        public long criticalPathLength;
+        public int[] criticalPath;
+
+        public LongResult(int n) {
+            this.distances = new long[n];
+            this.predecessors = new int[n];
+            Arrays.fill(predecessors, -1);
+        }
+
+        public LongResult(long[] distances, int[] predecessors) {
+            this.distances = distances;
+            this.predecessors = predecessors;
+        }
+
+        public boolean isReached(int node) {
+            long d = distances[node];
+            return d != UNREACHED_SHORTEST && d != UNREACHED_LONGEST;
+        }
+
+        /**
+         * The paths encoded by {@link #predecessors}, reconstructed on demand.
+         */
+        public PathTree pathTree() {
+            return new PathTree(predecessors);
+        }
+    }
+
+    /**
+     * Shortest and longest distances from one source, computed together by
+     * {@link #shortestAndLongestPaths}. {@link #shortest()} and {@link #longest()} are views
+     * over the same arrays; the critical path belongs to the longest view.
+     */
+    public static class PathBounds {
+        public final long[] minDistances;
+        public final long[] maxDistances;
+        public final int[] minPredecessors;
+        public final int[] maxPredecessors;
+        private final LongResult shortest;
+        private final LongResult longest;
+
+        PathBounds(int n) {
+            minDistances = new long[n];
+            maxDistances = new long[n];
+            minPredecessors = new int[n];
+            maxPredecessors = new int[n];
+            Arrays.fill(minPredecessors, -1);
+            Arrays.fill(maxPredecessors, -1);
+            shortest = new LongResult(minDistances, minPredecessors);
+            longest = new LongResult(maxDistances, maxPredecessors);
+        }
+
+        public LongResult shortest() {
+            return shortest;
+        }
+
+        public LongResult longest() {
+            return longest;
+        }
+
+        public long criticalPathLength() {
+            return longest.criticalPathLength;
+        }
+
+        public int[] criticalPath() {
+            return longest.criticalPath;
+        }
+    }
+
+    /**
+     * {@code d + w}, clamped to {@code [Long.MIN_VALUE + 1, Long.MAX_VALUE - 1]}.
+     */
+    public static long saturatedAdd(long d, long w) {
+        long sum = d + w;
+        if (((d ^ sum) & (w ^ sum)) < 0) {
+            return d < 0 ? Long.MIN_VALUE + 1 : Long.MAX_VALUE - 1;
+        }
+        if (sum == Long.MAX_VALUE) return Long.MAX_VALUE - 1;
+        if (sum == Long.MIN_VALUE) return Long.MIN_VALUE + 1;
+        return sum;
+    }
 
+    public Result shortestPath(List<List<int[]>> graph, List<Integer> topoOrder, int source) {
         int n = graph.size();
         Result result = new Result(n);
         Arrays.fill(result.distances, Integer.MAX_VALUE);
         result.distances[source] = 0;
 
+        long ops = 0;
+
         // Process nodes in topological order
         for (int u : topoOrder) {
-            metrics.incrementOperationCount();
+            ops++;
             if (result.distances[u] != Integer.MAX_VALUE) {
                 for (int[] edge : graph.get(u)) {
-                    metrics.incrementOperationCount();
+                    ops++;
                     int v = edge[0];
                     int w = edge[1];
                     if (result.distances[u] + w < result.distances[v]) {
@@ -48,25 +141,25 @@ public class DAGShortestPath {
             }
         }
 
+        metrics.addOperationCount(ops);
         return result;
     }
 
     public Result longestPath(List<List<int[]>> graph, List<Integer> topoOrder, int source) {
-        metrics.reset();
-        long startTime = System.nanoTime();
-
         int n = graph.size();
         Result result = new Result(n);
         Arrays.fill(result.distances, Integer.MIN_VALUE);
         result.distances[source] = 0;
 
+        long ops = 0;
+
         // For longest path, we can invert weights and find shortest path
         // or directly compute max distances
         for (int u : topoOrder) {
-            metrics.incrementOperationCount();
+            ops++;
             if (result.distances[u] != Integer.MIN_VALUE) {
                 for (int[] edge : graph.get(u)) {
-                    metrics.incrementOperationCount();
+                    ops++;
                     int v = edge[0];
                     int w = edge[1];
                     if (result.distances[u] + w > result.distances[v]) {
@@ -77,10 +170,220 @@ public class DAGShortestPath {
             }
         }
 
-        // Find critical path (longest path)
+        metrics.addOperationCount(ops);
+        findCriticalPath(result);
+
+        return result;
+    }
+
+    public Result shortestPath(CSRGraph graph, int[] topoOrder, int source) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        Result result = new Result(graph.n);
+        int[] dist = result.distances;
+        int[] pred = result.predecessors;
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[source] = 0;
+        long ops = 0;
+
+        for (int u : topoOrder) {
+            ops++;
+            int du = dist[u];
+            if (du != Integer.MAX_VALUE) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    ops++;
+                    int v = targets[e];
+                    if (du + weights[e] < dist[v]) {
+                        dist[v] = du + weights[e];
+                        pred[v] = u;
+                    }
+                }
+            }
+        }
+
+        metrics.addOperationCount(ops);
+        return result;
+    }
+
+    public Result longestPath(CSRGraph graph, int[] topoOrder, int source) {
+        int n = graph.n;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        Result result = new Result(n);
+        int[] dist = result.distances;
+        int[] pred = result.predecessors;
+        Arrays.fill(dist, Integer.MIN_VALUE);
+        dist[source] = 0;
+        long ops = 0;
+
+        for (int u : topoOrder) {
+            ops++;
+            int du = dist[u];
+            if (du != Integer.MIN_VALUE) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    ops++;
+                    int v = targets[e];
+                    if (du + weights[e] > dist[v]) {
+                        dist[v] = du + weights[e];
+                        pred[v] = u;
+                    }
+                }
+            }
+        }
+
+        metrics.addOperationCount(ops);
+        findCriticalPath(result);
+        return result;
+    }
+
+    public LongResult shortestPathLong(CSRGraph graph, int[] topoOrder, int source) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        LongResult result = new LongResult(graph.n);
+        long[] dist = result.distances;
+        int[] pred = result.predecessors;
+        Arrays.fill(dist, LongResult.UNREACHED_SHORTEST);
+        dist[source] = 0;
+        long ops = 0;
+
+        for (int u : topoOrder) {
+            ops++;
+            long du = dist[u];
+            if (du != LongResult.UNREACHED_SHORTEST) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    ops++;
+                    int v = targets[e];
+                    long dv = saturatedAdd(du, weights[e]);
+                    if (dv < dist[v]) {
+                        dist[v] = dv;
+                        pred[v] = u;
+                    }
+                }
+            }
+        }
+
+        metrics.addOperationCount(ops);
+        return result;
+    }
+
+    public LongResult longestPathLong(CSRGraph graph, int[] topoOrder, int source) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        LongResult result = new LongResult(graph.n);
+        long[] dist = result.distances;
+        int[] pred = result.predecessors;
+        Arrays.fill(dist, LongResult.UNREACHED_LONGEST);
+        dist[source] = 0;
+        long ops = 0;
+
+        for (int u : topoOrder) {
+            ops++;
+            long du = dist[u];
+            if (du != LongResult.UNREACHED_LONGEST) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    ops++;
+                    int v = targets[e];
+                    long dv = saturatedAdd(du, weights[e]);
+                    if (dv > dist[v]) {
+                        dist[v] = dv;
+                        pred[v] = u;
+                    }
+                }
+            }
+        }
+
+        metrics.addOperationCount(ops);
+        findCriticalPath(result);
+        return result;
+    }
+
+    /**
+     * {@link #shortestPathLong} and {@link #longestPathLong} in one pass over the topological
+     * order, reading each adjacency list and edge weight once for both relaxations. Both
+     * searches reach the same nodes, so a single reachability check covers them.
+     */
+    public PathBounds shortestAndLongestPaths(CSRGraph graph, int[] topoOrder, int source) {
+        int n = graph.n;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        PathBounds result = new PathBounds(n);
+        long[] min = result.minDistances;
+        long[] max = result.maxDistances;
+        int[] minPred = result.minPredecessors;
+        int[] maxPred = result.maxPredecessors;
+        Arrays.fill(min, LongResult.UNREACHED_SHORTEST);
+        Arrays.fill(max, LongResult.UNREACHED_LONGEST);
+        min[source] = 0;
+        max[source] = 0;
+        long ops = 0;
+
+        for (int u : topoOrder) {
+            ops++;
+            long minU = min[u];
+            if (minU != LongResult.UNREACHED_SHORTEST) {
+                long maxU = max[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    ops++;
+                    int v = targets[e];
+                    int w = weights[e];
+                    long low = saturatedAdd(minU, w);
+                    if (low < min[v]) {
+                        min[v] = low;
+                        minPred[v] = u;
+                    }
+                    long high = saturatedAdd(maxU, w);
+                    if (high > max[v]) {
+                        max[v] = high;
+                        maxPred[v] = u;
+                    }
+                }
+            }
+        }
+
+        metrics.addOperationCount(ops);
+        findCriticalPath(result.longest);
+        return result;
+    }
+
+    private void findCriticalPath(LongResult result) {
+        result.criticalPathLength = LongResult.UNREACHED_LONGEST;
+        int endNode = -1;
+        for (int i = 0; i < result.distances.length; i++) {
+            if (result.distances[i] > result.criticalPathLength) {
+                result.criticalPathLength = result.distances[i];
+                endNode = i;
+            }
+        }
+
+        if (endNode != -1) {
+            result.criticalPath = reconstructPathArray(result.predecessors, endNode);
+        }
+    }
+
+    /**
+     * Nodes from the source to {@code endNode} following {@code predecessors}.
+     */
+    public static int[] reconstructPathArray(int[] predecessors, int endNode) {
+        int length = 0;
+        for (int at = endNode; at != -1; at = predecessors[at]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int at = endNode; at != -1; at = predecessors[at]) {
+            path[--length] = at;
+        }
+        return path;
+    }
+
+    private void findCriticalPath(Result result) {
         result.criticalPathLength = Integer.MIN_VALUE;
         int endNode = -1;
-        for (int i = 0; i < n; i++) {
+        for (int i = 0; i < result.distances.length; i++) {
             if (result.distances[i] > result.criticalPathLength &&
                     result.distances[i] != Integer.MIN_VALUE) {
                 result.criticalPathLength = result.distances[i];
@@ -88,12 +391,9 @@ public class DAGShortestPath {
             }
         }
 
-        // Reconstruct critical path
         if (endNode != -1) {
             result.criticalPath = reconstructPath(result.predecessors, endNode);
         }
-
-        return result;
     }
 
     private List<Integer> reconstructPath(int[] predecessors, int endNode) {
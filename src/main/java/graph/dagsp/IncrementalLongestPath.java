@@ -0,0 +1,292 @@
+package graph.dagsp;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import java.util.*;
+
+/**
+ * Longest-path distances and the critical path of a DAG, kept current under edge weight
+ * changes.
+ *
+ * After a change to edge {@code u -> v} only {@code v} is recomputed from its predecessors,
+ * through a reverse CSR index. If its distance or predecessor changes, its successors are
+ * queued, and so on, using a min-heap keyed by topological position so that every node is
+ * recomputed once, after all of its changed predecessors. The maximum distance and the node
+ * holding it come from a segment tree over the nodes, so the critical path is available after
+ * an update without scanning the graph. An update whose changes cascade through a large part
+ * of the DAG switches to a plain sweep over the rest of the topological order, so it never
+ * costs much more than recomputing from scratch.
+ *
+ * Results, including tie-breaking, are identical to running
+ * {@link DAGShortestPath#longestPathLong} on the updated graph. The set of nodes reached from
+ * the source does not depend on weights, so it never changes.
+ */
+public class IncrementalLongestPath {
+    private final int n;
+    private final int source;
+    private final Metrics metrics;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] topoOrder;
+    private final int[] position;
+
+    // Predecessor index: edges into v are edge[revOffsets[v] .. revOffsets[v + 1])
+    private final int[] revOffsets;
+    private final int[] revSources;
+    private final int[] revEdges;
+
+    private final long[] dist;
+    private final int[] pred;
+
+    // Segment tree over nodes: max distance of each range and the smallest node attaining it
+    private final int leaves;
+    private final long[] treeMax;
+    private final int[] treeArg;
+
+    // Heap of topological positions awaiting recomputation
+    private final int[] heap;
+    private int heapSize;
+    private final boolean[] queued;
+
+    public IncrementalLongestPath(CSRGraph dag, int[] topoOrder, int source, Metrics metrics) {
+        this.n = dag.n;
+        this.source = source;
+        this.metrics = metrics;
+        this.offsets = dag.offsets;
+        this.targets = dag.targets;
+        this.weights = dag.weights.clone();
+        this.topoOrder = topoOrder;
+        this.position = new int[n];
+        for (int i = 0; i < topoOrder.length; i++) {
+            position[topoOrder[i]] = i;
+        }
+
+        revOffsets = new int[n + 1];
+        for (int e = 0; e < dag.edgeCount(); e++) {
+            revOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            revOffsets[v + 1] += revOffsets[v];
+        }
+        revSources = new int[dag.edgeCount()];
+        revEdges = new int[dag.edgeCount()];
+        int[] cursor = Arrays.copyOf(revOffsets, n);
+        // Sources in topological order, so ties resolve the way a forward sweep resolves them
+        for (int u : topoOrder) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = cursor[targets[e]]++;
+                revSources[slot] = u;
+                revEdges[slot] = e;
+            }
+        }
+
+        DAGShortestPath.LongResult initial = new DAGShortestPath(metrics)
+                .longestPathLong(graph(), topoOrder, source);
+        dist = initial.distances;
+        pred = initial.predecessors;
+
+        int size = 1;
+        while (size < Math.max(1, n)) size <<= 1;
+        leaves = size;
+        treeMax = new long[2 * size];
+        treeArg = new int[2 * size];
+        Arrays.fill(treeMax, DAGShortestPath.LongResult.UNREACHED_LONGEST);
+        Arrays.fill(treeArg, -1);
+        for (int v = 0; v < n; v++) {
+            treeMax[size + v] = dist[v];
+            treeArg[size + v] = v;
+        }
+        rebuildTree();
+
+        heap = new int[n];
+        queued = new boolean[n];
+    }
+
+    /**
+     * The DAG with its current weights.
+     */
+    public CSRGraph graph() {
+        return new CSRGraph(n, offsets, targets, weights);
+    }
+
+    public long distance(int v) {
+        return dist[v];
+    }
+
+    public int predecessor(int v) {
+        return pred[v];
+    }
+
+    public long criticalPathLength() {
+        return treeMax[1];
+    }
+
+    public int[] criticalPath() {
+        int end = treeArg[1];
+        return end == -1 || treeMax[1] == DAGShortestPath.LongResult.UNREACHED_LONGEST
+                ? new int[0] : DAGShortestPath.reconstructPathArray(pred, end);
+    }
+
+    /**
+     * The current state as a {@link DAGShortestPath.LongResult}, with copied arrays.
+     */
+    public DAGShortestPath.LongResult toResult() {
+        DAGShortestPath.LongResult result = new DAGShortestPath.LongResult(dist.clone(), pred.clone());
+        result.criticalPathLength = criticalPathLength();
+        result.criticalPath = criticalPath();
+        return result;
+    }
+
+    /**
+     * Sets the weight of the first {@code u -> v} edge and returns the new critical path length.
+     *
+     * @throws IllegalArgumentException if there is no such edge
+     */
+    public long setWeight(int u, int v, int weight) {
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v) {
+                return setWeight(e, weight);
+            }
+        }
+        throw new IllegalArgumentException("No edge " + u + " -> " + v);
+    }
+
+    /**
+     * Sets the weight of CSR edge {@code edge} and returns the new critical path length.
+     */
+    public long setWeight(int edge, int weight) {
+        if (weights[edge] == weight) {
+            return criticalPathLength();
+        }
+        weights[edge] = weight;
+        int v = targets[edge];
+        if (dist[v] == DAGShortestPath.LongResult.UNREACHED_LONGEST || v == source) {
+            return criticalPathLength();
+        }
+
+        // Past this much work a heap-ordered cascade loses to a sequential sweep
+        long budget = (n + offsets[n]) / 16;
+        long ops = 0;
+        push(v);
+        while (heapSize > 0) {
+            if (ops > budget) {
+                int from = position[heap[0]];
+                while (heapSize > 0) {
+                    pop();
+                }
+                ops += sweepFrom(from);
+                break;
+            }
+            int x = pop();
+            ops += 1 + revOffsets[x + 1] - revOffsets[x];
+            if (recompute(x)) {
+                update(x);
+                for (int e = offsets[x]; e < offsets[x + 1]; e++) {
+                    if (targets[e] != source) push(targets[e]);
+                }
+            }
+        }
+        metrics.addOperationCount(ops);
+        return criticalPathLength();
+    }
+
+    /**
+     * Recomputes {@code x} from its predecessors; returns whether its distance changed.
+     */
+    private boolean recompute(int x) {
+        long best = DAGShortestPath.LongResult.UNREACHED_LONGEST;
+        int bestPred = -1;
+        for (int i = revOffsets[x]; i < revOffsets[x + 1]; i++) {
+            long du = dist[revSources[i]];
+            if (du == DAGShortestPath.LongResult.UNREACHED_LONGEST) continue;
+            long candidate = DAGShortestPath.saturatedAdd(du, weights[revEdges[i]]);
+            if (candidate > best) {
+                best = candidate;
+                bestPred = revSources[i];
+            }
+        }
+        boolean changed = best != dist[x];
+        dist[x] = best;
+        pred[x] = bestPred;
+        return changed;
+    }
+
+    /**
+     * Recomputes every reached node from topological position {@code from} on, then rebuilds the
+     * segment tree. Returns the work done.
+     */
+    private long sweepFrom(int from) {
+        long ops = 0;
+        for (int i = from; i < n; i++) {
+            int x = topoOrder[i];
+            ops++;
+            if (x == source || dist[x] == DAGShortestPath.LongResult.UNREACHED_LONGEST) continue;
+            ops += revOffsets[x + 1] - revOffsets[x];
+            recompute(x);
+        }
+        for (int v = 0; v < n; v++) {
+            treeMax[leaves + v] = dist[v];
+        }
+        rebuildTree();
+        return ops + n;
+    }
+
+    private void rebuildTree() {
+        for (int i = leaves - 1; i >= 1; i--) {
+            pull(i);
+        }
+    }
+
+    private void update(int v) {
+        int i = leaves + v;
+        treeMax[i] = dist[v];
+        for (i >>= 1; i >= 1; i >>= 1) {
+            pull(i);
+        }
+    }
+
+    private void pull(int i) {
+        int left = 2 * i, right = left + 1;
+        // Ties go left, to the smaller node, as in DAGShortestPath's critical path scan
+        if (treeMax[right] > treeMax[left]) {
+            treeMax[i] = treeMax[right];
+            treeArg[i] = treeArg[right];
+        } else {
+            treeMax[i] = treeMax[left];
+            treeArg[i] = treeArg[left];
+        }
+    }
+
+    private void push(int v) {
+        if (queued[v]) return;
+        queued[v] = true;
+        int i = heapSize++;
+        int p = position[v];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (position[heap[parent]] <= p) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        queued[top] = false;
+        int last = heap[--heapSize];
+        int i = 0;
+        int p = position[last];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && position[heap[child + 1]] < position[heap[child]]) child++;
+            if (position[heap[child]] >= p) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,186 @@
+package graph.dagsp;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Shortest and longest path distances from many sources of a DAG.
+ *
+ * Sources are processed {@link #BLOCK} at a time: one topological sweep relaxes every edge
+ * for all sources of the block together, with the block's distances stored as
+ * {@code [node][source]} so the per-edge inner loop runs over adjacent ints. Blocks are
+ * independent and run as separate tasks on a ForkJoinPool.
+ *
+ * Distances are {@code long} with the unreached markers and saturating sums of
+ * {@link DAGShortestPath.LongResult}.
+ */
+public class MultiSourceDAGPaths {
+    public static final int BLOCK = 8;
+
+    private final CSRGraph graph;
+    private final int[] topoOrder;
+    private final int parallelism;
+    private final Metrics metrics;
+
+    /**
+     * Distances as a row-major {@code sources.length x n} matrix: the distance from
+     * {@code sources[i]} to node {@code v} is {@code distances[i * n + v]}.
+     */
+    public static class Matrix {
+        public final int[] sources;
+        public final int n;
+        public final long[] distances;
+
+        public Matrix(int[] sources, int n, long[] distances) {
+            this.sources = sources;
+            this.n = n;
+            this.distances = distances;
+        }
+
+        public long get(int sourceIndex, int node) {
+            return distances[sourceIndex * n + node];
+        }
+
+        public long[] row(int sourceIndex) {
+            return Arrays.copyOfRange(distances, sourceIndex * n, (sourceIndex + 1) * n);
+        }
+    }
+
+    public MultiSourceDAGPaths(CSRGraph graph, int[] topoOrder, int parallelism, Metrics metrics) {
+        this.graph = graph;
+        this.topoOrder = topoOrder;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Every node as a source.
+     */
+    public static int[] allSources(int n) {
+        int[] sources = new int[n];
+        for (int v = 0; v < n; v++) {
+            sources[v] = v;
+        }
+        return sources;
+    }
+
+    public Matrix shortestPaths(int[] sources) {
+        return run(sources, false);
+    }
+
+    public Matrix longestPaths(int[] sources) {
+        return run(sources, true);
+    }
+
+    private Matrix run(int[] sources, boolean longest) {
+        long cells = (long) sources.length * graph.n;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(sources.length + " sources x " + graph.n +
+                    " nodes does not fit in one distance matrix");
+        }
+        for (int s : sources) {
+            if (s < 0 || s >= graph.n) {
+                throw new IllegalArgumentException("Source " + s + " is not a node of the graph");
+            }
+        }
+
+        long[] distances = new long[(int) cells];
+        int blocks = (sources.length + BLOCK - 1) / BLOCK;
+        if (blocks <= 1 || parallelism <= 1) {
+            for (int b = 0; b < blocks; b++) {
+                sweep(sources, b * BLOCK, longest, distances);
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<Callable<Void>> tasks = new ArrayList<>(blocks);
+                for (int b = 0; b < blocks; b++) {
+                    int from = b * BLOCK;
+                    tasks.add(() -> {
+                        sweep(sources, from, longest, distances);
+                        return null;
+                    });
+                }
+                for (Future<Void> future : pool.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing distances", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Distance computation failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return new Matrix(sources, graph.n, distances);
+    }
+
+    /**
+     * One topological sweep for {@code sources[from .. from + BLOCK)}, written into the
+     * matching rows of {@code out}.
+     */
+    private void sweep(int[] sources, int from, boolean longest, long[] out) {
+        int n = graph.n;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        int k = Math.min(BLOCK, sources.length - from);
+        long unreached = longest ? DAGShortestPath.LongResult.UNREACHED_LONGEST
+                : DAGShortestPath.LongResult.UNREACHED_SHORTEST;
+
+        long[] dist = new long[n * k];
+        Arrays.fill(dist, unreached);
+        for (int j = 0; j < k; j++) {
+            dist[sources[from + j] * k + j] = 0;
+        }
+
+        long ops = 0;
+        for (int u : topoOrder) {
+            ops++;
+            int base = u * k;
+            boolean reached = false;
+            for (int j = 0; j < k; j++) {
+                reached |= dist[base + j] != unreached;
+            }
+            if (!reached) continue;
+
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                ops++;
+                int vBase = targets[e] * k;
+                int w = weights[e];
+                if (longest) {
+                    for (int j = 0; j < k; j++) {
+                        long du = dist[base + j];
+                        if (du != unreached) {
+                            long dv = DAGShortestPath.saturatedAdd(du, w);
+                            if (dv > dist[vBase + j]) {
+                                dist[vBase + j] = dv;
+                            }
+                        }
+                    }
+                } else {
+                    for (int j = 0; j < k; j++) {
+                        long du = dist[base + j];
+                        if (du != unreached) {
+                            long dv = DAGShortestPath.saturatedAdd(du, w);
+                            if (dv < dist[vBase + j]) {
+                                dist[vBase + j] = dv;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int j = 0; j < k; j++) {
+            int row = (from + j) * n;
+            for (int v = 0; v < n; v++) {
+                out[row + v] = dist[v * k + j];
+            }
+        }
+        metrics.addOperationCount(ops);
+    }
+}
@@ -0,0 +1,152 @@
+package graph.dagsp;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Read-only view of the paths encoded by a predecessor array.
+ *
+ * The predecessors form a parent-pointer tree rooted at the source, so every path shares its
+ * prefix with its predecessor's path and none needs to be stored. Depths are computed once, in
+ * O(n); after that a path's length is O(1) and writing it out costs only its own length, into a
+ * scratch buffer reused across calls. Paths are materialized as arrays only on request.
+ *
+ * Nodes that were never reached have no predecessor and so look like one-node paths; callers
+ * check reachability on the result the tree came from.
+ */
+public final class PathTree {
+    private final int[] predecessors;
+    private final int[] depth;
+    private final int[] scratch;
+
+    public PathTree(int[] predecessors) {
+        this.predecessors = predecessors;
+        int n = predecessors.length;
+        depth = new int[n];
+        Arrays.fill(depth, -1);
+        int[] stack = new int[n];
+        int maxDepth = 0;
+        for (int v = 0; v < n; v++) {
+            // Climb to the first node of known depth, then assign depths on the way back down
+            int top = 0;
+            int at = v;
+            while (at != -1 && depth[at] == -1) {
+                stack[top++] = at;
+                at = predecessors[at];
+            }
+            int d = at == -1 ? -1 : depth[at];
+            while (top > 0) {
+                depth[stack[--top]] = ++d;
+            }
+            maxDepth = Math.max(maxDepth, depth[v]);
+        }
+        scratch = new int[maxDepth + 1];
+    }
+
+    public int predecessor(int v) {
+        return predecessors[v];
+    }
+
+    /**
+     * Number of nodes on the path to {@code v}, including the source and {@code v}.
+     */
+    public int length(int v) {
+        return depth[v] + 1;
+    }
+
+    /**
+     * The path from the source to {@code v} as a new array.
+     */
+    public int[] path(int v) {
+        int[] path = new int[length(v)];
+        copyPath(v, path);
+        return path;
+    }
+
+    /**
+     * Writes the path from the source to {@code v} into the start of {@code dest} and returns its
+     * length.
+     */
+    public int copyPath(int v, int[] dest) {
+        int length = length(v);
+        int i = length;
+        for (int at = v; at != -1; at = predecessors[at]) {
+            dest[--i] = at;
+        }
+        return length;
+    }
+
+    /**
+     * Calls {@code action} with each node on the path to {@code v}, source first. Uses a buffer
+     * shared by all calls on this tree, so it must not be called concurrently.
+     */
+    public void forEachOnPath(int v, IntNodeConsumer action) throws IOException {
+        int length = copyPath(v, scratch);
+        for (int i = 0; i < length; i++) {
+            action.accept(scratch[i]);
+        }
+    }
+
+    /**
+     * Appends the path to {@code v} to {@code out}, nodes separated by {@code separator}.
+     */
+    public void appendPath(int v, CharSequence separator, Appendable out) throws IOException {
+        int length = copyPath(v, scratch);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) out.append(separator);
+            out.append(String.valueOf(scratch[i]));
+        }
+    }
+
+    /**
+     * A lazy handle on the path to {@code v}; nothing is materialized until it is read.
+     */
+    public Path view(int v) {
+        return new Path(this, v);
+    }
+
+    /**
+     * Whether the path to the last node of {@code nodes} in this tree is exactly {@code nodes}.
+     * Costs O(1) unless the lengths match, and then O(length).
+     */
+    public boolean isPath(int[] nodes) {
+        if (nodes == null || nodes.length == 0) {
+            return false;
+        }
+        int at = nodes[nodes.length - 1];
+        if (length(at) != nodes.length) {
+            return false;
+        }
+        for (int i = nodes.length - 1; i >= 0; i--, at = predecessors[at]) {
+            if (at != nodes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static final class Path {
+        public final PathTree tree;
+        public final int end;
+
+        Path(PathTree tree, int end) {
+            this.tree = tree;
+            this.end = end;
+        }
+
+        public int length() {
+            return tree.length(end);
+        }
+
+        public int[] toArray() {
+            return tree.path(end);
+        }
+    }
+
+    /**
+     * Consumer of path nodes that may write output.
+     */
+    public interface IntNodeConsumer {
+        void accept(int node) throws IOException;
+    }
+}
@@ -0,0 +1,835 @@
+package graph.dynamic;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import java.util.*;
+
+/**
+ * Keeps the strongly connected components of a changing graph, and a topological order of
+ * their condensation, up to date under edge insertions and deletions.
+ *
+ * Components sit in a linked list of order slots carrying increasing {@code long} labels with
+ * gaps between them, so comparing two components is comparing two labels. An inserted edge
+ * that agrees with the order only bumps a condensation edge count. One that contradicts it is
+ * repaired Pearce–Kelly style: a forward search from the head's component and a backward
+ * search from the tail's component, both limited to the label window between them, collect
+ * the affected components, which are then reassigned the window's slots. If the forward
+ * search reaches the tail's component the edge closed a cycle, and the components found by
+ * both searches are merged into one. Deleting an edge inside a component reruns Tarjan on that
+ * component alone; if it falls apart, the pieces take its place in the order, in new slots
+ * labelled within the gap after it. Before that, a bidirectional search checks whether the
+ * edge's tail still reaches its head inside the component, which settles the common case of
+ * a deletion inside a large, well-connected component without visiting all of it.
+ *
+ * Work per update is therefore bounded by the components and edges in the affected region,
+ * not by the size of the graph. {@link #snapshot()} materializes the current state in the
+ * same forms the batch pipeline uses.
+ */
+public class DynamicGraphService {
+    private static final long GAP = 1L << 32;
+
+    private final int n;
+    private final Metrics metrics;
+
+    // Node-level adjacency; parallel edges are kept separately
+    private final int[][] outTargets;
+    private final int[][] outWeights;
+    private final int[] outSize;
+    private final int[][] inSources;
+    private final int[] inSize;
+    private int edgeCount;
+
+    // Components: comp[v] is the live component id of node v
+    private final int[] comp;
+    private int[][] members = new int[0][];
+    private int[] memberCount = new int[0];
+    private int[] compSlot = new int[0];
+    private int[] freeComps = new int[16];
+    private int freeCompCount;
+    private int compCapacity;
+    private int compCount;
+
+    // Order slots, linked in topological order
+    private long[] slotLabel = new long[0];
+    private int[] slotNext = new int[0];
+    private int[] slotPrev = new int[0];
+    private int[] slotComp = new int[0];
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int slotCapacity;
+    private int head = -1;
+
+    /** Number of node edges between each ordered pair of distinct components, keyed by {@link #key}. */
+    private final LongIntHashMap dagEdges;
+
+    // Scratch space for searches, reset by bumping the stamps
+    private int[] forwardMark = new int[0];
+    private int[] backwardMark = new int[0];
+    private int[] compMark = new int[0];
+    private int stamp;
+    private final int[] nodeMark;
+    private final int[] backwardNodeMark;
+    private final int[] tarjanIndex;
+    private final int[] tarjanLow;
+    private final int[] tarjanCursor;
+    private final int[] tarjanSub;
+    private int nodeStamp;
+
+    /**
+     * A list of edge insertions and deletions, applied in order by {@link #apply(Batch)}.
+     */
+    public static class Batch {
+        private int[] ops = new int[64];
+        private int size;
+
+        public Batch add(int u, int v, int w) {
+            return append(1, u, v, w);
+        }
+
+        public Batch remove(int u, int v) {
+            return append(0, u, v, 0);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private Batch append(int kind, int u, int v, int w) {
+            if (4 * size + 4 > ops.length) {
+                ops = Arrays.copyOf(ops, ops.length * 2);
+            }
+            ops[4 * size] = kind;
+            ops[4 * size + 1] = u;
+            ops[4 * size + 2] = v;
+            ops[4 * size + 3] = w;
+            size++;
+            return this;
+        }
+    }
+
+    /**
+     * The graph and its components at one point in time. Components are numbered in
+     * topological order of the condensation, so {@link #topoOrder} is {@code 0, 1, ...}.
+     */
+    public static class Snapshot {
+        public final CSRGraph graph;
+        public final SCC.Components components;
+        public final CSRGraph condensation;
+        public final int[] topoOrder;
+
+        Snapshot(CSRGraph graph, SCC.Components components, CSRGraph condensation, int[] topoOrder) {
+            this.graph = graph;
+            this.components = components;
+            this.condensation = condensation;
+            this.topoOrder = topoOrder;
+        }
+    }
+
+    public DynamicGraphService(CSRGraph graph, Metrics metrics) {
+        this.n = graph.n;
+        this.metrics = metrics;
+        outTargets = new int[n][];
+        outWeights = new int[n][];
+        outSize = new int[n];
+        inSources = new int[n][];
+        inSize = new int[n];
+        comp = new int[n];
+        nodeMark = new int[n];
+        backwardNodeMark = new int[n];
+        tarjanIndex = new int[n];
+        tarjanLow = new int[n];
+        tarjanCursor = new int[n];
+        tarjanSub = new int[n];
+
+        int[] inDegree = new int[n];
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            inDegree[graph.targets[e]]++;
+        }
+        for (int u = 0; u < n; u++) {
+            outTargets[u] = Arrays.copyOfRange(graph.targets, graph.offsets[u], graph.offsets[u + 1]);
+            outWeights[u] = Arrays.copyOfRange(graph.weights, graph.offsets[u], graph.offsets[u + 1]);
+            outSize[u] = graph.outDegree(u);
+            inSources[u] = new int[inDegree[u]];
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                inSources[v][inSize[v]++] = u;
+            }
+        }
+        edgeCount = graph.edgeCount();
+
+        // Tarjan numbers components in reverse topological order
+        SCC.Components components = new SCC(graph, metrics).findComponents();
+        ensureCompCapacity(components.count);
+        ensureSlotCapacity(components.count);
+        long gap = gapFor(components.count);
+        int previous = -1;
+        for (int i = 0; i < components.count; i++) {
+            int c = allocComp();
+            int from = components.offsets[components.count - 1 - i];
+            int to = components.offsets[components.count - i];
+            members[c] = Arrays.copyOfRange(components.nodes, from, to);
+            memberCount[c] = to - from;
+            for (int k = 0; k < memberCount[c]; k++) {
+                comp[members[c][k]] = c;
+            }
+            int slot = allocSlot();
+            slotLabel[slot] = (i + 1) * gap;
+            link(slot, previous);
+            setSlot(c, slot);
+            previous = slot;
+        }
+
+        dagEdges = new LongIntHashMap(Math.max(16, edgeCount));
+        for (int u = 0; u < n; u++) {
+            for (int k = 0; k < outSize[u]; k++) {
+                if (comp[u] != comp[outTargets[u][k]]) {
+                    dagEdges.add(key(comp[u], comp[outTargets[u][k]]), 1);
+                }
+            }
+        }
+    }
+
+    public int nodeCount() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public int componentCount() {
+        return compCount;
+    }
+
+    public int condensationEdgeCount() {
+        return dagEdges.size();
+    }
+
+    public boolean sameComponent(int u, int v) {
+        return comp[checkNode(u)] == comp[checkNode(v)];
+    }
+
+    /**
+     * Whether {@code u}'s component comes strictly before {@code v}'s in the maintained order.
+     */
+    public boolean comesBefore(int u, int v) {
+        return label(comp[checkNode(u)]) < label(comp[checkNode(v)]);
+    }
+
+    public void apply(Batch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            int u = batch.ops[4 * i + 1];
+            int v = batch.ops[4 * i + 2];
+            if (batch.ops[4 * i] == 1) {
+                addEdge(u, v, batch.ops[4 * i + 3]);
+            } else {
+                removeEdge(u, v);
+            }
+        }
+    }
+
+    public void addEdge(int u, int v, int w) {
+        checkNode(u);
+        checkNode(v);
+        if (outSize[u] == outTargets[u].length) {
+            int capacity = Math.max(4, outSize[u] * 2);
+            outTargets[u] = Arrays.copyOf(outTargets[u], capacity);
+            outWeights[u] = Arrays.copyOf(outWeights[u], capacity);
+        }
+        outTargets[u][outSize[u]] = v;
+        outWeights[u][outSize[u]++] = w;
+        if (inSize[v] == inSources[v].length) {
+            inSources[v] = Arrays.copyOf(inSources[v], Math.max(4, inSize[v] * 2));
+        }
+        inSources[v][inSize[v]++] = u;
+        edgeCount++;
+        metrics.incrementOperationCount();
+
+        int cu = comp[u];
+        int cv = comp[v];
+        if (cu == cv || dagEdges.add(key(cu, cv), 1) > 1 || label(cu) < label(cv)) {
+            return;
+        }
+        reorder(cu, cv);
+    }
+
+    /**
+     * Removes one {@code u -> v} edge. Returns false if there is none.
+     */
+    public boolean removeEdge(int u, int v) {
+        checkNode(u);
+        checkNode(v);
+        int k = indexOf(outTargets[u], outSize[u], v);
+        if (k < 0) {
+            return false;
+        }
+        int last = --outSize[u];
+        outTargets[u][k] = outTargets[u][last];
+        outWeights[u][k] = outWeights[u][last];
+        int j = indexOf(inSources[v], inSize[v], u);
+        inSources[v][j] = inSources[v][--inSize[v]];
+        edgeCount--;
+        metrics.incrementOperationCount();
+
+        int cu = comp[u];
+        int cv = comp[v];
+        if (cu != cv) {
+            // Fewer constraints: the current order stays valid
+            dagEdges.add(key(cu, cv), -1);
+        } else if (!stillReaches(u, v, cu)) {
+            split(cu);
+        }
+        return true;
+    }
+
+    public Snapshot snapshot() {
+        int[] dense = new int[compCapacity];
+        int count = 0;
+        for (int s = head; s != -1; s = slotNext[s]) {
+            dense[slotComp[s]] = count++;
+        }
+
+        int[] compId = new int[n];
+        int[] offsets = new int[count + 1];
+        int[] nodes = new int[n];
+        for (int s = head, c = 0; s != -1; s = slotNext[s], c++) {
+            int live = slotComp[s];
+            System.arraycopy(members[live], 0, nodes, offsets[c], memberCount[live]);
+            offsets[c + 1] = offsets[c] + memberCount[live];
+        }
+        for (int v = 0; v < n; v++) {
+            compId[v] = dense[comp[v]];
+        }
+
+        int[] graphOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            graphOffsets[u + 1] = graphOffsets[u] + outSize[u];
+        }
+        int[] targets = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        for (int u = 0; u < n; u++) {
+            System.arraycopy(outTargets[u], 0, targets, graphOffsets[u], outSize[u]);
+            System.arraycopy(outWeights[u], 0, weights, graphOffsets[u], outSize[u]);
+        }
+        CSRGraph graph = new CSRGraph(n, graphOffsets, targets, weights);
+
+        int[] topoOrder = new int[count];
+        for (int c = 0; c < count; c++) {
+            topoOrder[c] = c;
+        }
+        return new Snapshot(graph, new SCC.Components(count, compId, offsets, nodes),
+                Condensation.build(graph, compId, count), topoOrder);
+    }
+
+    /**
+     * Restores the order after a new condensation edge {@code cu -> cv} with cv ordered before cu.
+     */
+    private void reorder(int cu, int cv) {
+        long lu = label(cu);
+        long lv = label(cv);
+        int forwardStamp = ++stamp;
+        int backwardStamp = ++stamp;
+        long ops = 0;
+
+        // Forward from cv through components ordered before cu
+        int[] forward = new int[16];
+        int forwardSize = 0;
+        boolean cycle = false;
+        forwardMark[cv] = forwardStamp;
+        forward[forwardSize++] = cv;
+        for (int i = 0; i < forwardSize; i++) {
+            int c = forward[i];
+            if (c == cu) continue;
+            for (int k = 0; k < memberCount[c]; k++) {
+                int m = members[c][k];
+                for (int e = 0; e < outSize[m]; e++) {
+                    ops++;
+                    int d = comp[outTargets[m][e]];
+                    if (forwardMark[d] == forwardStamp || (d != cu && label(d) >= lu)) continue;
+                    cycle |= d == cu;
+                    forwardMark[d] = forwardStamp;
+                    if (forwardSize == forward.length) forward = Arrays.copyOf(forward, forwardSize * 2);
+                    forward[forwardSize++] = d;
+                }
+            }
+        }
+
+        // Backward from cu through components ordered after cv
+        int[] backward = new int[16];
+        int backwardSize = 0;
+        backwardMark[cu] = backwardStamp;
+        backward[backwardSize++] = cu;
+        for (int i = 0; i < backwardSize; i++) {
+            int c = backward[i];
+            if (c == cv) continue;
+            for (int k = 0; k < memberCount[c]; k++) {
+                int m = members[c][k];
+                for (int e = 0; e < inSize[m]; e++) {
+                    ops++;
+                    int d = comp[inSources[m][e]];
+                    if (backwardMark[d] == backwardStamp || (d != cv && label(d) <= lv)) continue;
+                    backwardMark[d] = backwardStamp;
+                    if (backwardSize == backward.length) backward = Arrays.copyOf(backward, backwardSize * 2);
+                    backward[backwardSize++] = d;
+                }
+            }
+        }
+        metrics.addOperationCount(ops);
+
+        // The window's slots, in order
+        int poolSize = 0;
+        long[] pool = new long[forwardSize + backwardSize];
+        int[] poolSlots = new int[pool.length];
+        int[] merged = new int[cycle ? Math.min(forwardSize, backwardSize) : 0];
+        int mergedSize = 0;
+        int[] before = new int[backwardSize];
+        long[] beforeLabels = new long[backwardSize];
+        int beforeSize = 0;
+        int[] after = new int[forwardSize];
+        long[] afterLabels = new long[forwardSize];
+        int afterSize = 0;
+        for (int i = 0; i < forwardSize; i++) {
+            int c = forward[i];
+            pool[poolSize] = label(c);
+            poolSlots[poolSize++] = compSlot[c];
+            if (cycle && backwardMark[c] == backwardStamp) {
+                merged[mergedSize++] = c;
+            } else {
+                after[afterSize] = c;
+                afterLabels[afterSize++] = label(c);
+            }
+        }
+        for (int i = 0; i < backwardSize; i++) {
+            int c = backward[i];
+            if (forwardMark[c] == forwardStamp) continue;
+            pool[poolSize] = label(c);
+            poolSlots[poolSize++] = compSlot[c];
+            before[beforeSize] = c;
+            beforeLabels[beforeSize++] = label(c);
+        }
+        sortByKey(pool, poolSlots, poolSize);
+        sortByKey(beforeLabels, before, beforeSize);
+        sortByKey(afterLabels, after, afterSize);
+
+        // Backward-only components move down, forward-only ones move up, merged ones sit between
+        for (int i = 0; i < beforeSize; i++) {
+            setSlot(before[i], poolSlots[i]);
+        }
+        for (int i = 0; i < afterSize; i++) {
+            setSlot(after[i], poolSlots[poolSize - afterSize + i]);
+        }
+        if (cycle) {
+            int survivor = merged[0];
+            for (int i = 1; i < mergedSize; i++) {
+                if (memberCount[merged[i]] > memberCount[survivor]) survivor = merged[i];
+            }
+            setSlot(survivor, poolSlots[beforeSize]);
+            for (int i = beforeSize + 1; i < poolSize - afterSize; i++) {
+                unlink(poolSlots[i]);
+            }
+            merge(merged, mergedSize, survivor);
+        }
+    }
+
+    /**
+     * Merges {@code comps[0 .. count)} into {@code survivor}, which must be one of them.
+     */
+    private void merge(int[] comps, int count, int survivor) {
+        int absorbed = ++stamp;
+        for (int i = 0; i < count; i++) {
+            if (comps[i] != survivor) compMark[comps[i]] = absorbed;
+        }
+
+        // Drop the condensation edges of absorbed components, counting each node edge once
+        long ops = 0;
+        for (int i = 0; i < count; i++) {
+            int a = comps[i];
+            if (a == survivor) continue;
+            for (int k = 0; k < memberCount[a]; k++) {
+                int m = members[a][k];
+                for (int e = 0; e < outSize[m]; e++) {
+                    int d = comp[outTargets[m][e]];
+                    if (d != a) dagEdges.add(key(a, d), -1);
+                }
+                for (int e = 0; e < inSize[m]; e++) {
+                    int d = comp[inSources[m][e]];
+                    if (d != a && compMark[d] != absorbed) dagEdges.add(key(d, a), -1);
+                }
+                ops += outSize[m] + inSize[m];
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            int a = comps[i];
+            if (a == survivor) continue;
+            ensureMemberCapacity(survivor, memberCount[survivor] + memberCount[a]);
+            for (int k = 0; k < memberCount[a]; k++) {
+                comp[members[a][k]] = survivor;
+            }
+            System.arraycopy(members[a], 0, members[survivor], memberCount[survivor], memberCount[a]);
+            memberCount[survivor] += memberCount[a];
+        }
+
+        for (int i = 0; i < count; i++) {
+            int a = comps[i];
+            if (a == survivor) continue;
+            for (int k = 0; k < memberCount[a]; k++) {
+                int m = members[a][k];
+                for (int e = 0; e < outSize[m]; e++) {
+                    int d = comp[outTargets[m][e]];
+                    if (d != survivor) dagEdges.add(key(survivor, d), 1);
+                }
+                for (int e = 0; e < inSize[m]; e++) {
+                    int d = comp[inSources[m][e]];
+                    if (d != survivor) dagEdges.add(key(d, survivor), 1);
+                }
+            }
+            freeComp(a);
+        }
+        metrics.addOperationCount(ops);
+    }
+
+    /**
+     * Whether {@code u} still reaches {@code v} inside component {@code c}; if so, every path that
+     * used a removed {@code u -> v} edge can be rerouted and {@code c} stays strongly connected.
+     * Searches forward from {@code u} and backward from {@code v}, always growing the smaller
+     * frontier, and stops as soon as they meet.
+     */
+    private boolean stillReaches(int u, int v, int c) {
+        int forwardStamp = ++nodeStamp;
+        int backwardStamp = forwardStamp;
+        int[] forward = new int[16];
+        int[] backward = new int[16];
+        int forwardHead = 0, forwardTail = 0, backwardHead = 0, backwardTail = 0;
+        nodeMark[u] = forwardStamp;
+        forward[forwardTail++] = u;
+        backwardNodeMark[v] = backwardStamp;
+        backward[backwardTail++] = v;
+        if (u == v) return true;
+        long ops = 0;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            if (forwardTail - forwardHead <= backwardTail - backwardHead) {
+                int level = forwardTail;
+                while (forwardHead < level) {
+                    int x = forward[forwardHead++];
+                    for (int e = 0; e < outSize[x]; e++) {
+                        ops++;
+                        int y = outTargets[x][e];
+                        if (comp[y] != c || nodeMark[y] == forwardStamp) continue;
+                        if (backwardNodeMark[y] == backwardStamp) {
+                            metrics.addOperationCount(ops);
+                            return true;
+                        }
+                        nodeMark[y] = forwardStamp;
+                        if (forwardTail == forward.length) forward = Arrays.copyOf(forward, forwardTail * 2);
+                        forward[forwardTail++] = y;
+                    }
+                }
+            } else {
+                int level = backwardTail;
+                while (backwardHead < level) {
+                    int x = backward[backwardHead++];
+                    for (int e = 0; e < inSize[x]; e++) {
+                        ops++;
+                        int y = inSources[x][e];
+                        if (comp[y] != c || backwardNodeMark[y] == backwardStamp) continue;
+                        if (nodeMark[y] == forwardStamp) {
+                            metrics.addOperationCount(ops);
+                            return true;
+                        }
+                        backwardNodeMark[y] = backwardStamp;
+                        if (backwardTail == backward.length) backward = Arrays.copyOf(backward, backwardTail * 2);
+                        backward[backwardTail++] = y;
+                    }
+                }
+            }
+        }
+        metrics.addOperationCount(ops);
+        return false;
+    }
+
+    /**
+     * Recomputes the components inside {@code c} after one of its edges was removed, and gives
+     * any new pieces slots right after {@code c}'s, in topological order.
+     */
+    private void split(int c) {
+        int size = memberCount[c];
+        int[] nodes = members[c];
+        int mark = ++nodeStamp;
+        for (int k = 0; k < size; k++) {
+            nodeMark[nodes[k]] = mark;
+            tarjanIndex[nodes[k]] = -1;
+            tarjanSub[nodes[k]] = -1;
+        }
+
+        // Tarjan restricted to c; pieces are numbered in completion (reverse topological) order
+        int[] callStack = new int[size];
+        int[] stack = new int[size];
+        int id = 0, sp = 0, top = 0, pieces = 0;
+        long ops = 0;
+        for (int k = 0; k < size; k++) {
+            int root = nodes[k];
+            if (tarjanIndex[root] != -1) continue;
+            tarjanIndex[root] = tarjanLow[root] = id++;
+            tarjanCursor[root] = 0;
+            stack[top++] = root;
+            callStack[sp++] = root;
+            while (sp > 0) {
+                int at = callStack[sp - 1];
+                if (tarjanCursor[at] < outSize[at]) {
+                    ops++;
+                    int to = outTargets[at][tarjanCursor[at]++];
+                    if (nodeMark[to] != mark) continue;
+                    if (tarjanIndex[to] == -1) {
+                        tarjanIndex[to] = tarjanLow[to] = id++;
+                        tarjanCursor[to] = 0;
+                        stack[top++] = to;
+                        callStack[sp++] = to;
+                    } else if (tarjanSub[to] == -1) {
+                        tarjanLow[at] = Math.min(tarjanLow[at], tarjanIndex[to]);
+                    }
+                    continue;
+                }
+                sp--;
+                if (tarjanIndex[at] == tarjanLow[at]) {
+                    int node;
+                    do {
+                        node = stack[--top];
+                        tarjanSub[node] = pieces;
+                    } while (node != at);
+                    pieces++;
+                }
+                if (sp > 0) {
+                    int parent = callStack[sp - 1];
+                    tarjanLow[parent] = Math.min(tarjanLow[parent], tarjanLow[at]);
+                }
+            }
+        }
+        metrics.addOperationCount(ops);
+        if (pieces == 1) {
+            return;
+        }
+
+        // Drop every condensation edge touching c before renumbering its nodes
+        for (int k = 0; k < size; k++) {
+            int m = nodes[k];
+            for (int e = 0; e < outSize[m]; e++) {
+                int d = comp[outTargets[m][e]];
+                if (d != c) dagEdges.add(key(c, d), -1);
+            }
+            for (int e = 0; e < inSize[m]; e++) {
+                int d = comp[inSources[m][e]];
+                if (d != c) dagEdges.add(key(d, c), -1);
+            }
+        }
+
+        // The topologically first piece keeps c and its slot; the rest get new ids and slots
+        int[] pieceComp = new int[pieces];
+        int[] pieceSize = new int[pieces];
+        for (int k = 0; k < size; k++) {
+            pieceSize[tarjanSub[nodes[k]]]++;
+        }
+        pieceComp[pieces - 1] = c;
+        for (int p = pieces - 2; p >= 0; p--) {
+            pieceComp[p] = allocComp();
+            members[pieceComp[p]] = new int[pieceSize[p]];
+        }
+        members[c] = new int[pieceSize[pieces - 1]];
+        memberCount[c] = 0;
+        for (int k = 0; k < size; k++) {
+            int m = nodes[k];
+            int target = pieceComp[tarjanSub[m]];
+            comp[m] = target;
+            members[target][memberCount[target]++] = m;
+        }
+        int[] newSlots = new int[pieces - 1];
+        for (int p = pieces - 2, i = 0; p >= 0; p--, i++) {
+            newSlots[i] = allocSlot();
+        }
+        insertAfter(compSlot[c], newSlots);
+        for (int p = pieces - 2, i = 0; p >= 0; p--, i++) {
+            setSlot(pieceComp[p], newSlots[i]);
+        }
+
+        for (int k = 0; k < size; k++) {
+            int m = nodes[k];
+            for (int e = 0; e < outSize[m]; e++) {
+                int d = comp[outTargets[m][e]];
+                if (d != comp[m]) dagEdges.add(key(comp[m], d), 1);
+            }
+            for (int e = 0; e < inSize[m]; e++) {
+                int s = inSources[m][e];
+                if (nodeMark[s] != mark) dagEdges.add(key(comp[s], comp[m]), 1);
+            }
+        }
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+
+    private long label(int c) {
+        return slotLabel[compSlot[c]];
+    }
+
+    private int checkNode(int v) {
+        if (v < 0 || v >= n) {
+            throw new IllegalArgumentException("Node " + v + " is outside 0.." + (n - 1));
+        }
+        return v;
+    }
+
+    private static int indexOf(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private void setSlot(int c, int slot) {
+        compSlot[c] = slot;
+        slotComp[slot] = c;
+    }
+
+    private int allocComp() {
+        int c;
+        if (freeCompCount > 0) {
+            c = freeComps[--freeCompCount];
+        } else {
+            ensureCompCapacity(compCapacity + 1);
+            c = compCapacity++;
+        }
+        members[c] = new int[0];
+        memberCount[c] = 0;
+        compCount++;
+        return c;
+    }
+
+    private void freeComp(int c) {
+        members[c] = null;
+        memberCount[c] = 0;
+        compCount--;
+        if (freeCompCount == freeComps.length) freeComps = Arrays.copyOf(freeComps, freeCompCount * 2);
+        freeComps[freeCompCount++] = c;
+    }
+
+    private void ensureCompCapacity(int capacity) {
+        if (capacity <= members.length) return;
+        int length = Math.max(capacity, members.length * 2);
+        members = Arrays.copyOf(members, length);
+        memberCount = Arrays.copyOf(memberCount, length);
+        compSlot = Arrays.copyOf(compSlot, length);
+        forwardMark = Arrays.copyOf(forwardMark, length);
+        backwardMark = Arrays.copyOf(backwardMark, length);
+        compMark = Arrays.copyOf(compMark, length);
+    }
+
+    private void ensureMemberCapacity(int c, int capacity) {
+        if (members[c].length < capacity) {
+            members[c] = Arrays.copyOf(members[c], Math.max(capacity, members[c].length * 2));
+        }
+    }
+
+    private int allocSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        ensureSlotCapacity(slotCapacity + 1);
+        return slotCapacity++;
+    }
+
+    private void ensureSlotCapacity(int capacity) {
+        if (capacity <= slotLabel.length) return;
+        int length = Math.max(capacity, slotLabel.length * 2);
+        slotLabel = Arrays.copyOf(slotLabel, length);
+        slotNext = Arrays.copyOf(slotNext, length);
+        slotPrev = Arrays.copyOf(slotPrev, length);
+        slotComp = Arrays.copyOf(slotComp, length);
+    }
+
+    /**
+     * Links {@code slot} after {@code previous} ({@code -1} for the head), without relabelling.
+     */
+    private void link(int slot, int previous) {
+        int next = previous == -1 ? head : slotNext[previous];
+        slotPrev[slot] = previous;
+        slotNext[slot] = next;
+        if (previous == -1) head = slot; else slotNext[previous] = slot;
+        if (next != -1) slotPrev[next] = slot;
+    }
+
+    private void unlink(int slot) {
+        int previous = slotPrev[slot];
+        int next = slotNext[slot];
+        if (previous == -1) head = next; else slotNext[previous] = next;
+        if (next != -1) slotPrev[next] = previous;
+        if (freeSlotCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    /**
+     * Links {@code slots} in order after {@code previous}, labelled evenly within the gap to its
+     * successor; relabels the whole list first if that gap is too small.
+     */
+    private void insertAfter(int previous, int[] slots) {
+        int next = slotNext[previous];
+        long low = slotLabel[previous];
+        long high = next == -1 ? low + GAP * (slots.length + 1) : slotLabel[next];
+        if (high - low <= slots.length || high > Long.MAX_VALUE / 2) {
+            relabel(slots.length);
+            low = slotLabel[previous];
+            high = next == -1 ? low + GAP * (slots.length + 1) : slotLabel[next];
+        }
+        long step = (high - low) / (slots.length + 1);
+        int at = previous;
+        for (int i = 0; i < slots.length; i++) {
+            slotLabel[slots[i]] = low + step * (i + 1);
+            link(slots[i], at);
+            at = slots[i];
+        }
+    }
+
+    /**
+     * Spreads the labels of all linked slots evenly, leaving room for {@code extra} more.
+     */
+    private void relabel(int extra) {
+        long gap = gapFor(slotCapacity + extra);
+        long label = 0;
+        for (int s = head; s != -1; s = slotNext[s]) {
+            label += gap;
+            slotLabel[s] = label;
+        }
+    }
+
+    /**
+     * Label spacing for {@code slots} slots that keeps every label below {@code Long.MAX_VALUE / 2}.
+     */
+    private static long gapFor(long slots) {
+        return Math.max(1, Math.min(GAP, Long.MAX_VALUE / 2 / (slots + 1)));
+    }
+
+    /**
+     * Sorts {@code keys[0 .. size)} ascending, permuting {@code values} alongside.
+     */
+    private static void sortByKey(long[] keys, int[] values, int size) {
+        if (size < 2) return;
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) order[i] = keys[i];
+        Arrays.sort(order);
+        // Keys are distinct labels, so each finds its position by binary search
+        long[] sortedKeys = new long[size];
+        int[] sortedValues = new int[size];
+        for (int i = 0; i < size; i++) {
+            int pos = Arrays.binarySearch(order, keys[i]);
+            sortedKeys[pos] = keys[i];
+            sortedValues[pos] = values[i];
+        }
+        System.arraycopy(sortedKeys, 0, keys, 0, size);
+        System.arraycopy(sortedValues, 0, values, 0, size);
+    }
+}
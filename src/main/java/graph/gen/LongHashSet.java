@@ -0,0 +1,83 @@
+package graph.gen;
+
+import java.util.*;
+
+/**
+ * Open-addressing hash set of {@code long} keys with linear probing. {@link Long#MIN_VALUE} is
+ * reserved as the empty marker. Cleared and reused between chunks rather than reallocated.
+ */
+final class LongHashSet {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int size;
+    private int mask;
+
+    LongHashSet(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    /**
+     * Empties the set, resizing it for {@code expected} keys.
+     */
+    void clear(int expected) {
+        int capacity = capacityFor(expected);
+        if (capacity != keys.length) {
+            allocate(capacity);
+        } else if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+        }
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds {@code key}; returns false if it was already present.
+     */
+    boolean add(long key) {
+        int slot = index(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    private static int capacityFor(int expected) {
+        return Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+    }
+
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        allocate(capacity);
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                int slot = index(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
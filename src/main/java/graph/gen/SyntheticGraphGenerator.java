@@ -0,0 +1,503 @@
+package graph.gen;
+
+import graph.CSRGraph;
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphInput;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generator for large synthetic scheduling graphs, from 10^5 to 10^8 edges.
+ *
+ * Nodes are split into consecutive clusters whose sizes follow a bounded power law; every
+ * cluster larger than one node is closed into a ring, so the clusters are exactly the strongly
+ * connected components. Clusters are assigned in order to {@code layers} layers of roughly
+ * equal width. Out-degrees follow a power law (or are constant), scaled to the requested edge
+ * count. Each edge either stays inside its cluster or goes forward to a later layer, usually
+ * the next one, so the condensation is a DAG of depth at most {@code layers}. Weights are
+ * uniform or power-law distributed.
+ *
+ * Source nodes are generated in chunks, each from its own {@link SplittableRandom} derived from
+ * the seed and the chunk index, so output is identical for any thread count. A chunk spans
+ * {@value #CHUNK_NODES} nodes, or fewer on dense graphs so that it holds about
+ * {@value #CHUNK_EDGES} edges whatever the average degree. Chunks are generated in parallel and
+ * written in order, straight to the dataset JSON format or to {@link BinaryGraphFormat}; only a
+ * bounded window of chunks, a few per thread, is in memory at once. Duplicate
+ * edges are rejected with a primitive hash set of {@code u << 32 | v} keys.
+ *
+ * Usage: java graph.gen.SyntheticGraphGenerator <output.json|output.bin> [--nodes=N] [--edges=M]
+ * [--seed=S] [--scc-sizes=MIN:MAX:ALPHA] [--layers=L] [--intra=F] [--degrees=constant|powerlaw:ALPHA]
+ * [--max-degree=D] [--weights=uniform:MAX|powerlaw:ALPHA:MAX] [--threads=N]
+ */
+public class SyntheticGraphGenerator {
+    static final int CHUNK_NODES = 1 << 14;
+    /** Expected edges per chunk on dense graphs; sparser ones keep {@link #CHUNK_NODES} nodes per chunk. */
+    static final int CHUNK_EDGES = 1 << 18;
+    /** Probability that a forward edge skips one more layer. */
+    private static final double LAYER_SKIP = 0.25;
+
+    public static class Config {
+        public int nodes = 1_000_000;
+        public long edges = 10_000_000L;
+        public long seed = 42;
+        /** Cluster (SCC) sizes: bounded power law on [minSccSize, maxSccSize]. */
+        public int minSccSize = 1;
+        public int maxSccSize = 1000;
+        public double sccAlpha = 2.0;
+        public int layers = 100;
+        /** Fraction of non-ring edges that stay inside their cluster. */
+        public double intraFraction = 0.2;
+        /** Out-degree power-law exponent; 0 for constant degrees. */
+        public double degreeAlpha = 2.5;
+        public int maxDegree = 10_000;
+        /** Weight power-law exponent; 0 for uniform weights. */
+        public double weightAlpha = 0;
+        public int maxWeight = 10;
+        public int threads = Runtime.getRuntime().availableProcessors();
+
+        public static Config parse(String[] args, int from) {
+            Config config = new Config();
+            for (int i = from; i < args.length; i++) {
+                String arg = args[i];
+                String value = arg.substring(arg.indexOf('=') + 1);
+                if (arg.startsWith("--nodes=")) {
+                    config.nodes = Integer.parseInt(value);
+                } else if (arg.startsWith("--edges=")) {
+                    config.edges = Long.parseLong(value);
+                } else if (arg.startsWith("--seed=")) {
+                    config.seed = Long.parseLong(value);
+                } else if (arg.startsWith("--scc-sizes=")) {
+                    String[] parts = value.split(":");
+                    config.minSccSize = Integer.parseInt(parts[0]);
+                    config.maxSccSize = Integer.parseInt(parts[1]);
+                    config.sccAlpha = parts.length > 2 ? Double.parseDouble(parts[2]) : 0;
+                } else if (arg.startsWith("--layers=")) {
+                    config.layers = Integer.parseInt(value);
+                } else if (arg.startsWith("--intra=")) {
+                    config.intraFraction = Double.parseDouble(value);
+                } else if (arg.equals("--degrees=constant")) {
+                    config.degreeAlpha = 0;
+                } else if (arg.startsWith("--degrees=powerlaw:")) {
+                    config.degreeAlpha = Double.parseDouble(value.substring("powerlaw:".length()));
+                } else if (arg.startsWith("--max-degree=")) {
+                    config.maxDegree = Integer.parseInt(value);
+                } else if (arg.startsWith("--weights=uniform:")) {
+                    config.weightAlpha = 0;
+                    config.maxWeight = Integer.parseInt(value.substring("uniform:".length()));
+                } else if (arg.startsWith("--weights=powerlaw:")) {
+                    String[] parts = value.substring("powerlaw:".length()).split(":");
+                    config.weightAlpha = Double.parseDouble(parts[0]);
+                    config.maxWeight = Integer.parseInt(parts[1]);
+                } else if (arg.startsWith("--threads=")) {
+                    config.threads = Integer.parseInt(value);
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            config.validate();
+            return config;
+        }
+
+        void validate() {
+            if (nodes < 1 || edges < 0 || layers < 1 || threads < 1 || maxWeight < 1 || maxDegree < 1
+                    || minSccSize < 1 || maxSccSize < minSccSize || intraFraction < 0 || intraFraction > 1) {
+                throw new IllegalArgumentException("Invalid generator configuration");
+            }
+        }
+    }
+
+    /**
+     * Shape of a generated graph.
+     */
+    public static class Stats {
+        public final int nodes;
+        public final long edges;
+        public final int clusters;
+        public final int cyclicClusters;
+        public final int layers;
+        public final long bytes;
+        public final long elapsedNanos;
+
+        Stats(int nodes, long edges, int clusters, int cyclicClusters, int layers, long bytes, long elapsedNanos) {
+            this.nodes = nodes;
+            this.edges = edges;
+            this.clusters = clusters;
+            this.cyclicClusters = cyclicClusters;
+            this.layers = layers;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private final Config config;
+    private final int n;
+    /** Nodes of cluster c are clusterStart[c] .. clusterStart[c + 1]. */
+    private final int[] clusterStart;
+    private final int clusters;
+    private final int cyclicClusters;
+    /** Nodes of layer k are layerStart[k] .. layerStart[k + 1]; layers start on cluster boundaries. */
+    private final int[] layerStart;
+    private final int layers;
+    private final double degreeScale;
+    private final int chunkNodes;
+
+    public SyntheticGraphGenerator(Config config) {
+        config.validate();
+        this.config = config;
+        this.n = config.nodes;
+
+        // Cluster sizes, sequentially from the seed; O(clusters)
+        SplittableRandom random = new SplittableRandom(config.seed);
+        int[] starts = new int[1024];
+        int count = 0;
+        int cyclic = 0;
+        for (int assigned = 0; assigned < n; count++) {
+            if (count + 1 == starts.length) starts = Arrays.copyOf(starts, starts.length * 2);
+            starts[count] = assigned;
+            int size = Math.min(n - assigned,
+                    boundedPowerLaw(random, config.minSccSize, config.maxSccSize, config.sccAlpha));
+            if (size > 1) cyclic++;
+            assigned += size;
+        }
+        starts[count] = n;
+        this.clusterStart = Arrays.copyOf(starts, count + 1);
+        this.clusters = count;
+        this.cyclicClusters = cyclic;
+
+        this.layers = Math.min(config.layers, clusters);
+        this.layerStart = new int[layers + 1];
+        for (int k = 0; k <= layers; k++) {
+            layerStart[k] = clusterStart[(int) (((long) k * clusters + layers - 1) / layers)];
+        }
+
+        double mean = config.degreeAlpha == 0 ? 1 : powerLawMean(1, config.maxDegree, config.degreeAlpha);
+        this.degreeScale = (double) config.edges / n / mean;
+        this.chunkNodes = config.edges == 0 ? CHUNK_NODES
+                : (int) Math.max(1, Math.min(CHUNK_NODES, (long) CHUNK_EDGES * n / config.edges));
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args[0].startsWith("--")) {
+            System.out.println("Usage: java graph.gen.SyntheticGraphGenerator <output.json|output"
+                    + BinaryGraphFormat.EXTENSION + "> [--nodes=N] [--edges=M] [--seed=S] [--scc-sizes=MIN:MAX:ALPHA]"
+                    + " [--layers=L] [--intra=F] [--degrees=constant|powerlaw:ALPHA] [--max-degree=D]"
+                    + " [--weights=uniform:MAX|powerlaw:ALPHA:MAX] [--threads=N]");
+            return;
+        }
+        try {
+            Config config = Config.parse(args, 1);
+            Stats stats = new SyntheticGraphGenerator(config).write(Paths.get(args[0]));
+            System.out.printf("✓ Generated %s: %d nodes, %d edges, %d clusters (%d cyclic), %d layers, "
+                            + "%.1f MB in %.1f ms%n", args[0], stats.nodes, stats.edges, stats.clusters,
+                    stats.cyclicClusters, stats.layers, stats.bytes / 1e6, stats.elapsedNanos / 1e6);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("✗ Failed to generate " + args[0] + ": " + e.getMessage());
+        }
+    }
+
+    public int clusterCount() {
+        return clusters;
+    }
+
+    public int layerCount() {
+        return layers;
+    }
+
+    /**
+     * Generates the whole graph in memory.
+     */
+    public GraphInput generate() throws IOException {
+        int[] offsets = new int[n + 1];
+        int[][] targetChunks = new int[chunkCount()][];
+        int[][] weightChunks = new int[chunkCount()][];
+        forEachChunk(false, chunk -> {
+            for (int i = 0; i < chunk.count; i++) {
+                offsets[chunk.from + i + 1] = chunk.degrees[i];
+            }
+            targetChunks[chunk.index] = Arrays.copyOf(chunk.targets, chunk.edges);
+            weightChunks[chunk.index] = Arrays.copyOf(chunk.weights, chunk.edges);
+        });
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int c = 0, at = 0; c < targetChunks.length; at += targetChunks[c].length, c++) {
+            System.arraycopy(targetChunks[c], 0, targets, at, targetChunks[c].length);
+            System.arraycopy(weightChunks[c], 0, weights, at, weightChunks[c].length);
+        }
+        return new GraphInput(n, 0, "edge", new CSRGraph(n, offsets, targets, weights));
+    }
+
+    /**
+     * Streams the graph to {@code path}: binary for {@value BinaryGraphFormat#EXTENSION} files,
+     * dataset JSON otherwise.
+     */
+    public Stats write(Path path) throws IOException {
+        long start = System.nanoTime();
+        long[] edges = {0};
+        if (path.getFileName().toString().endsWith(BinaryGraphFormat.EXTENSION)) {
+            try (BinaryGraphFormat.StreamWriter writer = new BinaryGraphFormat.StreamWriter(path, n, 0, "edge")) {
+                forEachChunk(false, chunk -> writer.append(chunk.degrees, chunk.count, chunk.targets, chunk.weights));
+                edges[0] = writer.edgeCount();
+            }
+        } else {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+                ByteText header = new ByteText(128);
+                header.append("{\n  \"n\": ").append(n)
+                        .append(",\n  \"source\": 0,\n  \"weightModel\": \"edge\",\n  \"edges\": [");
+                out.write(header.bytes, 0, header.length);
+                forEachChunk(true, chunk -> {
+                    // Every edge is written with a leading separator; the very first one drops it
+                    int skip = edges[0] == 0 && chunk.edges > 0 ? 1 : 0;
+                    out.write(chunk.json.bytes, skip, chunk.json.length - skip);
+                    edges[0] += chunk.edges;
+                });
+                ByteText footer = new ByteText(16).append("\n  ]\n}\n");
+                out.write(footer.bytes, 0, footer.length);
+            }
+        }
+        return new Stats(n, edges[0], clusters, cyclicClusters, layers, Files.size(path), System.nanoTime() - start);
+    }
+
+    private interface ChunkConsumer {
+        void accept(Chunk chunk) throws IOException;
+    }
+
+    private int chunkCount() {
+        return (n + chunkNodes - 1) / chunkNodes;
+    }
+
+    /**
+     * Generates chunks on a pool and hands them to {@code consumer} in order, keeping at most a
+     * few chunks per thread in flight.
+     */
+    private void forEachChunk(boolean json, ChunkConsumer consumer) throws IOException {
+        int chunkCount = chunkCount();
+        int window = 2 * config.threads;
+        ExecutorService executor = Executors.newFixedThreadPool(config.threads);
+        ThreadLocal<LongHashSet> sets = ThreadLocal.withInitial(() -> new LongHashSet(1 << 16));
+        try {
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+            int next = 0;
+            for (int done = 0; done < chunkCount; done++) {
+                while (next < chunkCount && pending.size() < window) {
+                    int index = next++;
+                    pending.add(executor.submit(() -> generateChunk(index, sets.get(), json)));
+                }
+                consumer.accept(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Generation interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Chunk generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Out-edges of the nodes of chunk {@code index}, plus their JSON text if {@code json} is set.
+     */
+    Chunk generateChunk(int index, LongHashSet seen, boolean json) {
+        int from = index * chunkNodes;
+        int to = Math.min(n, from + chunkNodes);
+        SplittableRandom random = new SplittableRandom(mix(config.seed + 0x9E3779B97F4A7C15L * (index + 1)));
+        Chunk chunk = new Chunk(index, from, to - from,
+                (int) Math.ceil((double) config.edges / n * (to - from)) + 16, json);
+        seen.clear(chunk.targets.length);
+
+        int cluster = Arrays.binarySearch(clusterStart, from);
+        if (cluster < 0) cluster = -cluster - 2;
+        int layer = Arrays.binarySearch(layerStart, from);
+        if (layer < 0) layer = -layer - 2;
+        layer = Math.min(layer, layers - 1);
+
+        for (int u = from; u < to; u++) {
+            while (clusterStart[cluster + 1] <= u) cluster++;
+            while (layer + 1 < layers && layerStart[layer + 1] <= u) layer++;
+            int clusterFrom = clusterStart[cluster];
+            int clusterSize = clusterStart[cluster + 1] - clusterFrom;
+            long forwardTargets = layer + 1 < layers ? n - layerStart[layer + 1] : 0;
+
+            long degree = drawDegree(random);
+            if (clusterSize > 1) degree = Math.max(degree, 1);
+            degree = Math.min(degree, forwardTargets + clusterSize - 1);
+
+            int start = chunk.edges;
+            if (clusterSize > 1) {
+                int ring = u + 1 < clusterFrom + clusterSize ? u + 1 : clusterFrom;
+                seen.add((long) u << 32 | ring);
+                chunk.add(u, ring, drawWeight(random));
+            }
+            // Rejection sampling; nodes whose feasible target set is nearly full may end up short
+            for (long attempts = 8 * degree + 32; chunk.edges - start < degree && attempts > 0; attempts--) {
+                int v;
+                if (forwardTargets == 0 || (clusterSize > 2 && random.nextDouble() < config.intraFraction)) {
+                    if (clusterSize <= 2) break;
+                    v = clusterFrom + random.nextInt(clusterSize);
+                    if (v == u) continue;
+                } else {
+                    int target = layer + 1;
+                    while (target + 1 < layers && random.nextDouble() < LAYER_SKIP) target++;
+                    v = layerStart[target] + random.nextInt(layerStart[target + 1] - layerStart[target]);
+                }
+                if (seen.add((long) u << 32 | v)) {
+                    chunk.add(u, v, drawWeight(random));
+                }
+            }
+            chunk.degrees[u - from] = chunk.edges - start;
+        }
+        return chunk;
+    }
+
+    private long drawDegree(SplittableRandom random) {
+        double scaled = config.degreeAlpha == 0 ? degreeScale
+                : degreeScale * boundedPowerLaw(random, 1, config.maxDegree, config.degreeAlpha);
+        long degree = (long) scaled;
+        // Randomized rounding keeps the mean exact
+        if (random.nextDouble() < scaled - degree) degree++;
+        return Math.min(degree, config.maxDegree);
+    }
+
+    private int drawWeight(SplittableRandom random) {
+        return config.weightAlpha == 0 ? 1 + random.nextInt(config.maxWeight)
+                : boundedPowerLaw(random, 1, config.maxWeight, config.weightAlpha);
+    }
+
+    /**
+     * An integer in [min, max] with P(k) proportional to the mass of a continuous power law with
+     * exponent {@code alpha} on [k, k + 1); alpha 0 gives the uniform distribution.
+     */
+    static int boundedPowerLaw(SplittableRandom random, int min, int max, double alpha) {
+        if (min == max) {
+            return min;
+        }
+        double u = random.nextDouble();
+        double x;
+        if (alpha == 0) {
+            x = min + u * (max + 1.0 - min);
+        } else if (alpha == 1) {
+            x = min * Math.pow((max + 1.0) / min, u);
+        } else {
+            double a = Math.pow(min, 1 - alpha);
+            double b = Math.pow(max + 1.0, 1 - alpha);
+            x = Math.pow(a + u * (b - a), 1 / (1 - alpha));
+        }
+        return (int) Math.max(min, Math.min(max, Math.floor(x)));
+    }
+
+    /**
+     * Mean of {@link #boundedPowerLaw}, summed exactly over its support.
+     */
+    static double powerLawMean(int min, int max, double alpha) {
+        double total = 0;
+        double weighted = 0;
+        for (int k = min; k <= max; k++) {
+            double mass = alpha == 1 ? Math.log((k + 1.0) / k)
+                    : Math.pow(k, 1 - alpha) - Math.pow(k + 1.0, 1 - alpha);
+            if (alpha == 0) mass = 1;
+            total += mass;
+            weighted += mass * k;
+        }
+        return weighted / total;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * One chunk of consecutive source nodes: per-node degrees, edges in CSR order and, when
+     * writing JSON, the same edges as dataset JSON text.
+     */
+    static final class Chunk {
+        final int index;
+        final int from;
+        final int count;
+        final int[] degrees;
+        int[] targets;
+        int[] weights;
+        int edges;
+        final ByteText json;
+
+        Chunk(int index, int from, int count, int expectedEdges, boolean json) {
+            this.index = index;
+            this.from = from;
+            this.count = count;
+            this.degrees = new int[count];
+            this.targets = new int[expectedEdges];
+            this.weights = new int[expectedEdges];
+            this.json = json ? new ByteText(expectedEdges * 32) : null;
+        }
+
+        void add(int u, int v, int w) {
+            if (edges == targets.length) {
+                targets = Arrays.copyOf(targets, edges * 2);
+                weights = Arrays.copyOf(weights, edges * 2);
+            }
+            targets[edges] = v;
+            weights[edges] = w;
+            edges++;
+            if (json != null) json.append(",\n    {\"u\": ").append(u).append(", \"v\": ").append(v)
+                    .append(", \"w\": ").append(w).append('}');
+        }
+    }
+
+    /**
+     * Growable ASCII text buffer that formats ints without intermediate Strings.
+     */
+    static final class ByteText {
+        byte[] bytes;
+        int length;
+
+        ByteText(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        ByteText append(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        ByteText append(String text) {
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                bytes[length++] = (byte) text.charAt(i);
+            }
+            return this;
+        }
+
+        ByteText append(int value) {
+            ensure(11);
+            long v = value;
+            if (v < 0) {
+                bytes[length++] = '-';
+                v = -v;
+            }
+            int digits = 1;
+            for (long rest = v / 10; rest != 0; rest /= 10) {
+                digits++;
+            }
+            int at = length + digits;
+            length = at;
+            do {
+                bytes[--at] = (byte) ('0' + v % 10);
+                v /= 10;
+            } while (v != 0);
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + extra, bytes.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package graph.io;
+
+import graph.CSRGraph;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Versioned little-endian binary graph format.
+ *
+ * <pre>
+ * int    magic        0x50415247 (the bytes "GRAP")
+ * int    version      1
+ * int    n
+ * int    m
+ * int    source
+ * int    weightModel length in bytes (-1 for none), followed by the UTF-8 bytes padded to 4 bytes
+ * int[n + 1] offsets
+ * int[m]     targets
+ * int[m]     weights
+ * </pre>
+ *
+ * Loading memory-maps the file and bulk-copies each region into the CSR arrays, so there is
+ * no parsing and no intermediate buffering on the heap.
+ *
+ * Usage: java graph.io.BinaryGraphFormat <input.json> [output.bin]
+ */
+public final class BinaryGraphFormat {
+    public static final String EXTENSION = ".bin";
+    public static final int MAGIC = 0x50415247;
+    public static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 6;
+    private static final int HEADER_MAP_BYTES = 1 << 16;
+    private static final int IO_BUFFER = 1 << 20;
+    private static final int MAP_CHUNK_INTS = 1 << 28;
+
+    private BinaryGraphFormat() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java graph.io.BinaryGraphFormat <input.json> [output" + EXTENSION + "]");
+            return;
+        }
+        String input = args[0];
+        String output = args.length > 1 ? args[1] : input.replaceFirst("\\.json$", "") + EXTENSION;
+        try {
+            long start = System.nanoTime();
+            GraphInput graph = JsonGraphLoader.load(Paths.get(input));
+            write(graph, Paths.get(output));
+            System.out.printf("✓ Converted %s -> %s (%d nodes, %d edges) in %.1f ms%n",
+                    input, output, graph.n, graph.edgeCount(), (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("✗ Failed to convert " + input + ": " + e.getMessage());
+        }
+    }
+
+    public static void write(GraphInput input, Path path) throws IOException {
+        CSRGraph graph = input.graph;
+        byte[] model = input.weightModel == null ? null : input.weightModel.getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(input.n).putInt(graph.edgeCount()).putInt(input.source);
+            if (model == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(model.length).put(model);
+                for (int pad = padding(model.length); pad > 0; pad--) {
+                    buffer.put((byte) 0);
+                }
+            }
+            writeInts(channel, buffer, graph.offsets, graph.n + 1);
+            writeInts(channel, buffer, graph.targets, graph.edgeCount());
+            writeInts(channel, buffer, graph.weights, graph.edgeCount());
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes a graph whose edges arrive in chunks of consecutive source nodes, without holding
+     * it in memory. Offsets and targets go straight to their regions of the file; weights are
+     * spooled to a temporary file and appended on {@link #close()}, once the edge count, and so
+     * the start of the weights region, is known.
+     */
+    public static final class StreamWriter implements Closeable {
+        private final Path path;
+        private final int n;
+        private final int source;
+        private final byte[] model;
+        private final FileChannel channel;
+        private final Path weightsFile;
+        private final FileChannel weightsChannel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private final long offsetsPosition;
+        private final long targetsPosition;
+        private int nodes;
+        private long edges;
+
+        public StreamWriter(Path path, int n, int source, String weightModel) throws IOException {
+            this.path = path;
+            this.n = n;
+            this.source = source;
+            this.model = weightModel == null ? null : weightModel.getBytes(StandardCharsets.UTF_8);
+            this.offsetsPosition = HEADER_INTS * 4L + (model == null ? 0 : model.length + padding(model.length));
+            this.targetsPosition = offsetsPosition + 4L * (n + 1);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            Path directory = path.toAbsolutePath().getParent();
+            this.weightsFile = Files.createTempFile(directory, path.getFileName().toString(), ".weights");
+            this.weightsChannel = FileChannel.open(weightsFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            writeOffset(0);
+        }
+
+        /**
+         * Appends the out-edges of the next {@code count} nodes: {@code degrees[i]} edges for each,
+         * taken in order from {@code targets} and {@code weights}.
+         */
+        public void append(int[] degrees, int count, int[] targets, int[] weights) throws IOException {
+            if (nodes + count > n) {
+                throw new IllegalStateException("More than " + n + " nodes appended");
+            }
+            int edgeCount = 0;
+            for (int i = 0; i < count; i++) {
+                edgeCount += degrees[i];
+            }
+            if (edges + edgeCount > Integer.MAX_VALUE) {
+                throw new IllegalStateException("More than " + Integer.MAX_VALUE + " edges appended");
+            }
+
+            channel.position(offsetsPosition + 4L * (nodes + 1));
+            long offset = edges;
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < 4) flush(channel, buffer);
+                offset += degrees[i];
+                buffer.putInt((int) offset);
+            }
+            flush(channel, buffer);
+
+            channel.position(targetsPosition + 4L * edges);
+            writeInts(channel, buffer, targets, edgeCount);
+            flush(channel, buffer);
+            writeInts(weightsChannel, buffer, weights, edgeCount);
+            flush(weightsChannel, buffer);
+
+            nodes += count;
+            edges += edgeCount;
+        }
+
+        public long edgeCount() {
+            return edges;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (nodes != n) {
+                    throw new IllegalStateException("Only " + nodes + " of " + n + " nodes appended to " + path);
+                }
+                long position = targetsPosition + 4L * edges;
+                long size = weightsChannel.size();
+                for (long copied = 0; copied < size; ) {
+                    copied += weightsChannel.transferTo(copied, size - copied, channel.position(position + copied));
+                }
+
+                channel.position(0);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt((int) edges).putInt(source);
+                if (model == null) {
+                    buffer.putInt(-1);
+                } else {
+                    buffer.putInt(model.length).put(model);
+                    for (int pad = padding(model.length); pad > 0; pad--) {
+                        buffer.put((byte) 0);
+                    }
+                }
+                flush(channel, buffer);
+            } finally {
+                try {
+                    weightsChannel.close();
+                } finally {
+                    channel.close();
+                    Files.deleteIfExists(weightsFile);
+                }
+            }
+        }
+
+        private void writeOffset(int value) throws IOException {
+            channel.position(offsetsPosition);
+            buffer.putInt(value);
+            flush(channel, buffer);
+        }
+    }
+
+    public static GraphInput load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, HEADER_MAP_BYTES))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.remaining() < HEADER_INTS * 4 || header.getInt() != MAGIC) {
+                throw new IOException("Not a binary graph file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary graph version " + version + " in " + path);
+            }
+            int n = header.getInt();
+            int m = header.getInt();
+            int source = header.getInt();
+            int modelLength = header.getInt();
+            String weightModel = null;
+            long position = HEADER_INTS * 4L;
+            if (modelLength >= 0) {
+                if (position + modelLength > header.limit()) {
+                    throw new IOException("Corrupt binary graph header in " + path);
+                }
+                byte[] model = new byte[modelLength];
+                header.get(model);
+                weightModel = new String(model, StandardCharsets.UTF_8);
+                position += modelLength + padding(modelLength);
+            }
+
+            long expected = position + 4L * (n + 1) + 8L * m;
+            if (n < 0 || m < 0 || size != expected) {
+                throw new IOException("Binary graph " + path + " is " + size + " bytes, header implies " + expected);
+            }
+
+            int[] offsets = readInts(channel, position, n + 1);
+            position += 4L * (n + 1);
+            int[] targets = readInts(channel, position, m);
+            position += 4L * m;
+            int[] weights = readInts(channel, position, m);
+            validate(path, n, m, offsets, targets);
+            return new GraphInput(n, source, weightModel, new CSRGraph(n, offsets, targets, weights));
+        }
+    }
+
+    /**
+     * Checks that the adjacency arrays form a CSR graph, so a damaged file fails here rather than
+     * with an index out of bounds deep inside an algorithm.
+     */
+    private static void validate(Path path, int n, int m, int[] offsets, int[] targets) throws IOException {
+        if (offsets[0] != 0 || offsets[n] != m) {
+            throw new IOException("Corrupt offsets in " + path + ": span " + offsets[0] + ".." + offsets[n]
+                    + " for " + m + " edges");
+        }
+        for (int u = 0; u < n; u++) {
+            if (offsets[u] > offsets[u + 1]) {
+                throw new IOException("Corrupt offsets in " + path + ": node " + u + " ends before it starts");
+            }
+        }
+        for (int e = 0; e < m; e++) {
+            if (targets[e] < 0 || targets[e] >= n) {
+                throw new IOException("Edge " + e + " in " + path + " references node " + targets[e] + " but n = " + n);
+            }
+        }
+    }
+
+    private static int padding(int length) {
+        return (4 - (length & 3)) & 3;
+    }
+
+    private static int[] readInts(FileChannel channel, long position, int count) throws IOException {
+        int[] values = new int[count];
+        for (int from = 0; from < count; from += MAP_CHUNK_INTS) {
+            int length = Math.min(MAP_CHUNK_INTS, count - from);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                    position + 4L * from, 4L * length);
+            mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, from, length);
+        }
+        return values;
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, int count) throws IOException {
+        int from = 0;
+        while (from < count) {
+            IntBuffer ints = buffer.asIntBuffer();
+            int length = Math.min(ints.remaining(), count - from);
+            if (length == 0) {
+                flush(channel, buffer);
+                continue;
+            }
+            ints.put(values, from, length);
+            buffer.position(buffer.position() + 4 * length);
+            from += length;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,300 @@
+package graph.io;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * Columnar binary result output: one file per array plus a small JSON manifest.
+ *
+ * Each column is a raw little-endian {@code int32} or {@code int64} array with no header, so an
+ * uncompressed column can be memory-mapped and read in place. Columns may instead be stored
+ * gzip or deflate compressed, trading that for much smaller files. {@code manifest.json} lists
+ * every column with its type, length, file, stored size and a CRC-32 of the uncompressed bytes,
+ * next to the scalar results of the run.
+ */
+public final class ColumnarResultFormat {
+    public static final String FORMAT = "smart-city-columnar";
+    public static final int VERSION = 1;
+    public static final String MANIFEST = "manifest.json";
+
+    private static final int IO_BUFFER = 1 << 20;
+    /** Result columns are written once per run, so favour speed over the last few percent of size. */
+    private static final int LEVEL = Deflater.BEST_SPEED;
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
+
+    private ColumnarResultFormat() {
+    }
+
+    public enum Compression {
+        NONE("none", ""),
+        GZIP("gzip", ".gz"),
+        DEFLATE("deflate", ".deflate");
+
+        public final String label;
+        final String suffix;
+
+        Compression(String label, String suffix) {
+            this.label = label;
+            this.suffix = suffix;
+        }
+
+        public static Compression parse(String label) {
+            for (Compression compression : values()) {
+                if (compression.label.equals(label)) {
+                    return compression;
+                }
+            }
+            throw new IllegalArgumentException("Unknown compression: " + label);
+        }
+    }
+
+    /**
+     * Contents of {@code manifest.json}. Scalar results are filled in by the caller; columns are
+     * added by {@link Writer}.
+     */
+    public static class Manifest {
+        public String format = FORMAT;
+        public int version = VERSION;
+        public String byteOrder = "little-endian";
+        public String compression;
+        public String dataset;
+        public int nodes;
+        public int edges;
+        public int source;
+        public int sourceComponent;
+        public int componentCount;
+        public long criticalPathLength;
+        public long projectDuration;
+        public long unreachedShortest;
+        public long unreachedLongest;
+        public List<Column> columns = new ArrayList<>();
+
+        public Column column(String name) {
+            for (Column column : columns) {
+                if (column.name.equals(name)) {
+                    return column;
+                }
+            }
+            throw new IllegalArgumentException("No column " + name);
+        }
+    }
+
+    public static class Column {
+        public String name;
+        public String type;
+        public int length;
+        public String file;
+        public long storedBytes;
+        public long crc32;
+    }
+
+    /**
+     * Writes the columns of one result into a directory, then the manifest on {@link #finish()}.
+     * Any manifest already in the directory is removed first, and one closed without finishing,
+     * for example after a column failed to write, is left without a manifest.
+     */
+    public static final class Writer implements Closeable {
+        private final Path directory;
+        private final Compression compression;
+        private final Manifest manifest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private boolean finished;
+
+        public Writer(Path directory, Compression compression, Manifest manifest) throws IOException {
+            this.directory = Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve(MANIFEST));
+            this.compression = compression;
+            this.manifest = manifest;
+            manifest.compression = compression.label;
+        }
+
+        public Writer ints(String name, int[] values, int from, int to) throws IOException {
+            CRC32 crc = new CRC32();
+            try (OutputStream out = open(name, "int32", to - from)) {
+                for (int i = from; i < to; ) {
+                    int length = Math.min(buffer.remaining() / 4, to - i);
+                    buffer.asIntBuffer().put(values, i, length);
+                    buffer.position(buffer.position() + 4 * length);
+                    i += length;
+                    drain(out, crc);
+                }
+            }
+            return endColumn(crc);
+        }
+
+        public Writer ints(String name, int[] values) throws IOException {
+            return ints(name, values, 0, values.length);
+        }
+
+        public Writer longs(String name, long[] values) throws IOException {
+            CRC32 crc = new CRC32();
+            try (OutputStream out = open(name, "int64", values.length)) {
+                for (int i = 0; i < values.length; ) {
+                    int length = Math.min(buffer.remaining() / 8, values.length - i);
+                    buffer.asLongBuffer().put(values, i, length);
+                    buffer.position(buffer.position() + 8 * length);
+                    i += length;
+                    drain(out, crc);
+                }
+            }
+            return endColumn(crc);
+        }
+
+        /** Writes the manifest; call once all columns are written. */
+        public void finish() throws IOException {
+            Path temp = Files.createTempFile(directory, MANIFEST, ".tmp");
+            try {
+                try (java.io.Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    GSON.toJson(manifest, out);
+                }
+                Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                finished = true;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                Files.deleteIfExists(directory.resolve(MANIFEST));
+            }
+        }
+
+        private OutputStream open(String name, String type, int length) throws IOException {
+            Column column = new Column();
+            column.name = name;
+            column.type = type;
+            column.length = length;
+            column.file = name + "." + (type.equals("int32") ? "i32" : "i64") + compression.suffix;
+            manifest.columns.add(column);
+
+            OutputStream file = Files.newOutputStream(directory.resolve(column.file));
+            switch (compression) {
+                case GZIP:
+                    return new GZIPOutputStream(file, IO_BUFFER) {
+                        {
+                            def.setLevel(LEVEL);
+                        }
+                    };
+                case DEFLATE:
+                    return new DeflaterOutputStream(file, new Deflater(LEVEL), IO_BUFFER) {
+                        @Override
+                        public void close() throws IOException {
+                            try {
+                                super.close();
+                            } finally {
+                                def.end();
+                            }
+                        }
+                    };
+                default:
+                    return file;
+            }
+        }
+
+        private void drain(OutputStream out, CRC32 crc) throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+
+        private Writer endColumn(CRC32 crc) throws IOException {
+            Column column = manifest.columns.get(manifest.columns.size() - 1);
+            column.crc32 = crc.getValue();
+            column.storedBytes = Files.size(directory.resolve(column.file));
+            return this;
+        }
+    }
+
+    public static Manifest readManifest(Path directory) throws IOException {
+        try (Reader in = Files.newBufferedReader(directory.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            Manifest manifest = GSON.fromJson(in, Manifest.class);
+            if (manifest == null || !FORMAT.equals(manifest.format)) {
+                throw new IOException("Not a columnar result manifest: " + directory.resolve(MANIFEST));
+            }
+            if (manifest.version != VERSION) {
+                throw new IOException("Unsupported columnar result version " + manifest.version + " in " + directory);
+            }
+            return manifest;
+        }
+    }
+
+    /**
+     * Memory-maps an uncompressed column for reading in place.
+     */
+    public static ByteBuffer map(Path directory, Column column) throws IOException {
+        if (compressionOf(column) != Compression.NONE) {
+            throw new IOException("Column " + column.name + " is compressed and cannot be mapped");
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(column.file), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public static int[] readInts(Path directory, Column column) throws IOException {
+        int[] values = new int[column.length];
+        ByteBuffer bytes = readBytes(directory, column, 4L * column.length);
+        bytes.asIntBuffer().get(values);
+        return values;
+    }
+
+    public static long[] readLongs(Path directory, Column column) throws IOException {
+        long[] values = new long[column.length];
+        ByteBuffer bytes = readBytes(directory, column, 8L * column.length);
+        bytes.asLongBuffer().get(values);
+        return values;
+    }
+
+    private static ByteBuffer readBytes(Path directory, Column column, long expected) throws IOException {
+        if (expected > Integer.MAX_VALUE) {
+            throw new IOException("Column " + column.name + " is too large to read into an array; map it instead");
+        }
+        byte[] bytes = new byte[(int) expected];
+        try (InputStream in = openColumn(directory, column)) {
+            int read = in.readNBytes(bytes, 0, bytes.length);
+            if (read != bytes.length || in.read() != -1) {
+                throw new IOException("Column " + column.name + " does not hold " + column.length + " values");
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (crc.getValue() != column.crc32) {
+            throw new IOException("Checksum mismatch in column " + column.name);
+        }
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static InputStream openColumn(Path directory, Column column) throws IOException {
+        InputStream file = new BufferedInputStream(Files.newInputStream(directory.resolve(column.file)), IO_BUFFER);
+        switch (compressionOf(column)) {
+            case GZIP:
+                return new GZIPInputStream(file, IO_BUFFER);
+            case DEFLATE:
+                return new InflaterInputStream(file);
+            default:
+                return file;
+        }
+    }
+
+    private static Compression compressionOf(Column column) {
+        for (Compression compression : Compression.values()) {
+            if (compression != Compression.NONE && column.file.endsWith(compression.suffix)) {
+                return compression;
+            }
+        }
+        return Compression.NONE;
+    }
+}
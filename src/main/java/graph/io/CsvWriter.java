@@ -0,0 +1,105 @@
+package graph.io;
+
+import java.io.*;
+
+/**
+ * Buffered writer for CSV output. Numbers are formatted straight into the buffer, digit by
+ * digit, so writing large integer arrays creates no intermediate Strings. Fields are written
+ * as given; callers quote them where needed. Rows end with the platform line separator, as
+ * {@link PrintWriter#println()} does.
+ */
+public final class CsvWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public static CsvWriter open(String filePath) throws IOException {
+        return new CsvWriter(new FileWriter(filePath));
+    }
+
+    public CsvWriter write(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (position == BUFFER_SIZE) drain();
+            buffer[position++] = text.charAt(i);
+        }
+        return this;
+    }
+
+    public CsvWriter write(char c) throws IOException {
+        if (position == BUFFER_SIZE) drain();
+        buffer[position++] = c;
+        return this;
+    }
+
+    public CsvWriter write(boolean value) throws IOException {
+        return write(value ? "true" : "false");
+    }
+
+    public CsvWriter write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write("-9223372036854775808");
+        }
+        if (BUFFER_SIZE - position < 20) drain();
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int at = position + digits;
+        position = at;
+        do {
+            buffer[--at] = (char) ('0' + (int) (value % 10));
+            value /= 10;
+        } while (value != 0);
+        return this;
+    }
+
+    public CsvWriter comma() throws IOException {
+        return write(',');
+    }
+
+    public CsvWriter endRow() throws IOException {
+        return write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes {@code values[from .. to)} separated by {@code separator}.
+     */
+    public CsvWriter writeJoined(int[] values, int from, int to, String separator) throws IOException {
+        for (int i = from; i < to; i++) {
+            if (i > from) write(separator);
+            write(values[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,40 @@
+package graph.io;
+
+import graph.CSRGraph;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A loaded input graph: the dataset header fields plus the edges in CSR form.
+ */
+public class GraphInput {
+    public final int n;
+    public final int source;
+    public final String weightModel;
+    public final CSRGraph graph;
+
+    public GraphInput(int n, int source, String weightModel, CSRGraph graph) {
+        this.n = n;
+        this.source = source;
+        this.weightModel = weightModel;
+        this.graph = graph;
+    }
+
+    /**
+     * Loads a dataset, choosing the binary or JSON reader by file extension.
+     */
+    public static GraphInput load(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(BinaryGraphFormat.EXTENSION)) {
+            return BinaryGraphFormat.load(path);
+        }
+        return JsonGraphLoader.load(path);
+    }
+
+    public int edgeCount() {
+        return graph.edgeCount();
+    }
+
+    public double density() {
+        return n > 1 ? (double) edgeCount() / ((double) n * (n - 1)) : 0;
+    }
+}
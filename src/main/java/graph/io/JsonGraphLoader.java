@@ -0,0 +1,195 @@
+package graph.io;
+
+import graph.CSRGraph;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Streaming loader for the dataset JSON format ({@code n}, {@code source}, {@code weightModel},
+ * {@code edges: [{u, v, w}, ...]}), reading token by token with Gson's {@link JsonReader}.
+ *
+ * Targets and weights are appended straight into growable int arrays. While edges arrive
+ * grouped by ascending {@code u} (as the generators write them) only per-node counts are kept
+ * for the sources, so the arrays already are the CSR layout; the first out-of-order edge
+ * switches to keeping an explicit source array and a final counting-sort pass.
+ */
+public final class JsonGraphLoader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private JsonGraphLoader() {
+    }
+
+    public static GraphInput load(Path path) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    public static GraphInput load(Reader input) throws IOException {
+        JsonReader reader = new JsonReader(input);
+        int n = 0;
+        int source = 0;
+        String weightModel = null;
+        EdgeBuffer edges = new EdgeBuffer();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "n":
+                    n = reader.nextInt();
+                    edges.ensureNodes(n);
+                    break;
+                case "source":
+                    source = reader.nextInt();
+                    break;
+                case "weightModel":
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                    } else {
+                        weightModel = reader.nextString();
+                    }
+                    break;
+                case "edges":
+                    readEdges(reader, edges);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new GraphInput(n, source, weightModel, edges.toCSR(n));
+    }
+
+    private static void readEdges(JsonReader reader, EdgeBuffer edges) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int u = 0, v = 0, w = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "u":
+                        u = reader.nextInt();
+                        break;
+                    case "v":
+                        v = reader.nextInt();
+                        break;
+                    case "w":
+                        w = reader.nextInt();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            edges.add(u, v, w);
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Growable primitive edge storage that stays in CSR order for sorted input.
+     */
+    private static final class EdgeBuffer {
+        private int[] targets = new int[1024];
+        private int[] weights = new int[1024];
+        private int[] sources;
+        private int[] degree = new int[16];
+        private int size;
+        private int lastSource = -1;
+        private int maxNode = -1;
+        /** Node count once {@code n} has been read, so bad ids fail before any array grows to them. */
+        private int nodes = -1;
+
+        void ensureNodes(int n) {
+            nodes = n;
+            if (degree != null && degree.length < n) {
+                degree = Arrays.copyOf(degree, n);
+            }
+        }
+
+        void add(int u, int v, int w) {
+            if (u < 0 || v < 0) {
+                throw new IllegalArgumentException("Negative node id in edge " + u + "->" + v);
+            }
+            // No node count reaches Integer.MAX_VALUE, and u + 1 below must not overflow
+            if ((nodes >= 0 && Math.max(u, v) >= nodes) || u == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Edge references node " + Math.max(u, v) + " but n = "
+                        + (nodes >= 0 ? String.valueOf(nodes) : "unknown"));
+            }
+            if (size == targets.length) {
+                int capacity = size + (size >> 1);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                if (sources != null) {
+                    sources = Arrays.copyOf(sources, capacity);
+                }
+            }
+            maxNode = Math.max(maxNode, Math.max(u, v));
+
+            if (sources == null && u < lastSource) {
+                unsort();
+            }
+            if (sources == null) {
+                if (u >= degree.length) {
+                    degree = Arrays.copyOf(degree, Math.max(u + 1, degree.length * 2));
+                }
+                degree[u]++;
+                lastSource = u;
+            } else {
+                sources[size] = u;
+            }
+            targets[size] = v;
+            weights[size] = w;
+            size++;
+        }
+
+        /**
+         * Expands the per-node counts into an explicit source array.
+         */
+        private void unsort() {
+            sources = new int[targets.length];
+            int pos = 0;
+            for (int u = 0; u <= lastSource; u++) {
+                for (int k = 0; k < degree[u]; k++) {
+                    sources[pos++] = u;
+                }
+            }
+            degree = null;
+        }
+
+        CSRGraph toCSR(int n) {
+            if (maxNode >= n) {
+                throw new IllegalArgumentException("Edge references node " + maxNode + " but n = " + n);
+            }
+            if (sources != null) {
+                return CSRGraph.fromEdges(n, sources, targets, weights, size);
+            }
+
+            int[] offsets = new int[n + 1];
+            for (int u = 0; u < n && u < degree.length; u++) {
+                offsets[u + 1] = offsets[u] + degree[u];
+            }
+            for (int u = degree.length; u < n; u++) {
+                offsets[u + 1] = offsets[u];
+            }
+            degree = null;
+            if (targets.length != size) {
+                targets = Arrays.copyOf(targets, size);
+                weights = Arrays.copyOf(weights, size);
+            }
+            return new CSRGraph(n, offsets, targets, weights);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package graph.reach;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import graph.io.GraphInput;
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import graph.topo.TopologicalSort;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Answers "does {@code from} reach {@code to}" on original node ids in near-constant time.
+ *
+ * Queries map both nodes to their strongly connected components; nodes of one component always
+ * reach each other. Across components, reachability is decided on the condensation DAG, taken in
+ * the CSR form the pipeline already builds with {@link Condensation#build} rather than the list
+ * form of {@link SCC#getCondensationGraph()}:
+ * <ul>
+ *   <li>a component never reaches one earlier in topological order;</li>
+ *   <li>small DAGs (up to {@value #CLOSURE_LIMIT} components) keep the full transitive closure
+ *       as one bit row per component, and answer with a single bit test;</li>
+ *   <li>larger DAGs keep GRAIL interval labels from {@value #TRAVERSALS} randomized DFS
+ *       traversals: if the target's interval is not nested in the source's for some traversal
+ *       the answer is no, and if the target lies in the source's subtree of the first DFS tree
+ *       the answer is yes;</li>
+ *   <li>they also keep, per component, bitmasks of which of the {@code 64 * HUB_WORDS}
+ *       best-connected components (hubs) it reaches and is reached from: a shared bit proves a
+ *       path through that hub. Both masks come from one word-parallel pass each way over the
+ *       topological order.</li>
+ * </ul>
+ * Queries none of these settle fall back to a DFS that only enters components whose labels
+ * still admit the target, and stops at the first one a hub or tree check confirms. The
+ * large-DAG index is 5 ints and {@code 2 * HUB_WORDS} longs per component on top of the
+ * component mapping. Queries may run
+ * concurrently; each thread gets its own search scratch space.
+ *
+ * Usage: java graph.reach.ReachabilityIndex <graph> [from:to ...] (pairs are read from stdin,
+ * one "from to" per line, when none are given)
+ */
+public final class ReachabilityIndex {
+    static final int CLOSURE_LIMIT = 1 << 13;
+    static final int TRAVERSALS = 2;
+    /** Hub components, as 64-bit words of hub bits per component. */
+    static final int HUB_WORDS = 2;
+    /** Per component: low and rank for each traversal, then the pre-order number of traversal 0. */
+    private static final int STRIDE = 2 * TRAVERSALS + 1;
+    private static final int PRE = 2 * TRAVERSALS;
+
+    private final int[] compId;
+    private final int count;
+    private final CSRGraph dag;
+    private final int[] position;
+    private final long[] closure;
+    private final int words;
+    private final int[] labels;
+    /** Bits of the hubs each component reaches, and of the hubs that reach it; HUB_WORDS each. */
+    private final long[] reachesHub;
+    private final long[] reachedByHub;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Indexes the condensation {@code dag} of a graph whose nodes map to components through
+     * {@code compId}; {@code topoOrder} is a topological order of {@code dag}.
+     */
+    public ReachabilityIndex(int[] compId, CSRGraph dag, int[] topoOrder, Metrics metrics) {
+        this.compId = compId;
+        this.count = dag.n;
+        this.dag = dag;
+        this.position = new int[count];
+        for (int i = 0; i < count; i++) {
+            position[topoOrder[i]] = i;
+        }
+
+        long ops = count;
+        if (count <= CLOSURE_LIMIT) {
+            words = (count + 63) >>> 6;
+            closure = new long[count * words];
+            labels = null;
+            reachesHub = null;
+            reachedByHub = null;
+            // Reverse topological order: every successor's row is complete before it is merged
+            for (int i = count - 1; i >= 0; i--) {
+                int u = topoOrder[i];
+                int row = u * words;
+                for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                    int v = dag.targets[e];
+                    closure[row + (v >>> 6)] |= 1L << v;
+                    int other = v * words;
+                    for (int w = 0; w < words; w++) {
+                        closure[row + w] |= closure[other + w];
+                    }
+                    ops += words;
+                }
+            }
+        } else {
+            words = 0;
+            closure = null;
+            labels = new int[count * STRIDE];
+            for (int t = 0; t < TRAVERSALS; t++) {
+                ops += label(t, topoOrder, new SplittableRandom(0x5DEECE66DL * (t + 1)));
+            }
+            reachesHub = new long[count * HUB_WORDS];
+            reachedByHub = new long[count * HUB_WORDS];
+            ops += labelHubs(topoOrder);
+        }
+        metrics.addOperationCount(ops);
+        scratch = ThreadLocal.withInitial(() -> new Scratch(count));
+    }
+
+    /**
+     * Builds the components, condensation and topological order of {@code graph}, then the index.
+     */
+    public static ReachabilityIndex build(CSRGraph graph, Metrics metrics) {
+        SCC.Components components = new SCC(graph, metrics).findComponents();
+        CSRGraph dag = Condensation.build(graph, components);
+        int[] topoOrder = new TopologicalSort(metrics).kahnTopoSort(dag);
+        return new ReachabilityIndex(components.compId, dag, topoOrder, metrics);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java graph.reach.ReachabilityIndex <graph> [from:to ...]");
+            return;
+        }
+        try {
+            GraphInput input = GraphInput.load(Paths.get(args[0]));
+            long start = System.nanoTime();
+            ReachabilityIndex index = build(input.graph, Metrics.NOOP);
+            System.out.printf("Indexed %d nodes, %d components in %.1f ms (%.1f MB)%n", input.n,
+                    index.componentCount(), (System.nanoTime() - start) / 1e6, index.memoryBytes() / 1e6);
+
+            if (args.length > 1) {
+                for (int i = 1; i < args.length; i++) {
+                    String[] pair = args[i].split(":");
+                    answer(index, input, Integer.parseInt(pair[0]), Integer.parseInt(pair[1]));
+                }
+            } else {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+                for (String line; (line = in.readLine()) != null; ) {
+                    String[] pair = line.trim().split("[\\s,:]+");
+                    if (pair.length == 2) {
+                        answer(index, input, Integer.parseInt(pair[0]), Integer.parseInt(pair[1]));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("✗ " + e.getMessage());
+        }
+    }
+
+    private static void answer(ReachabilityIndex index, GraphInput input, int from, int to) {
+        if (from < 0 || from >= input.n || to < 0 || to >= input.n) {
+            System.out.println(from + " -> " + to + ": node outside 0.." + (input.n - 1));
+        } else {
+            System.out.println(from + " -> " + to + ": " + (index.reaches(from, to) ? "reachable" : "not reachable"));
+        }
+    }
+
+    /**
+     * Whether there is a path from node {@code from} to node {@code to} (every node reaches
+     * itself). With edges pointing from a task to the tasks that wait on it, this is whether
+     * {@code to} depends on {@code from}.
+     */
+    public boolean reaches(int from, int to) {
+        return componentReaches(compId[from], compId[to]);
+    }
+
+    /**
+     * Whether component {@code a} reaches component {@code b} in the condensation.
+     */
+    public boolean componentReaches(int a, int b) {
+        if (a == b) {
+            return true;
+        }
+        if (position[a] > position[b]) {
+            return false;
+        }
+        if (closure != null) {
+            return (closure[a * words + (b >>> 6)] & 1L << b) != 0;
+        }
+        if (!admits(a, b)) {
+            return false;
+        }
+        if (inTreeSubtree(a, b) || viaHub(a, b)) {
+            return true;
+        }
+        return search(a, b);
+    }
+
+    public int componentCount() {
+        return count;
+    }
+
+    /**
+     * Approximate heap held by the index itself, excluding the component mapping and the DAG.
+     */
+    public long memoryBytes() {
+        return 4L * position.length + (closure != null ? 8L * closure.length
+                : 4L * labels.length + 8L * reachesHub.length + 8L * reachedByHub.length);
+    }
+
+    /**
+     * Whether every traversal's interval for {@code b} is nested in that of {@code a}; false
+     * proves {@code a} does not reach {@code b}.
+     */
+    private boolean admits(int a, int b) {
+        int la = a * STRIDE, lb = b * STRIDE;
+        for (int t = 0; t < 2 * TRAVERSALS; t += 2) {
+            if (labels[lb + t] < labels[la + t] || labels[lb + t + 1] > labels[la + t + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether {@code b} is a descendant of {@code a} in the first DFS tree; true proves reachability.
+     */
+    private boolean inTreeSubtree(int a, int b) {
+        int la = a * STRIDE, lb = b * STRIDE;
+        return labels[la + PRE] <= labels[lb + PRE] && labels[lb + 1] <= labels[la + 1];
+    }
+
+    /**
+     * Whether some hub is reachable from {@code a} and reaches {@code b}; true proves reachability.
+     */
+    private boolean viaHub(int a, int b) {
+        int ha = a * HUB_WORDS, hb = b * HUB_WORDS;
+        for (int w = 0; w < HUB_WORDS; w++) {
+            if ((reachesHub[ha + w] & reachedByHub[hb + w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean search(int a, int b) {
+        Scratch s = scratch.get();
+        int stamp = s.nextStamp();
+        int top = 0;
+        s.stack[top++] = a;
+        s.visited[a] = stamp;
+        int limit = position[b];
+        while (top > 0) {
+            int u = s.stack[--top];
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                int w = dag.targets[e];
+                if (w == b) {
+                    return true;
+                }
+                if (s.visited[w] == stamp || position[w] > limit || !admits(w, b)) {
+                    continue;
+                }
+                if (inTreeSubtree(w, b) || viaHub(w, b)) {
+                    return true;
+                }
+                s.visited[w] = stamp;
+                s.stack[top++] = w;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One randomized DFS over the DAG: roots and child order are shuffled, post-order ranks are
+     * assigned, then each component's low label is the smallest rank it reaches. Returns the
+     * work done.
+     */
+    private long label(int t, int[] topoOrder, SplittableRandom random) {
+        int[] offsets = dag.offsets, targets = dag.targets;
+        int[] inDegree = new int[count];
+        for (int e = 0; e < dag.edgeCount(); e++) {
+            inDegree[targets[e]]++;
+        }
+        int[] roots = new int[count];
+        int rootCount = 0;
+        for (int u = 0; u < count; u++) {
+            if (inDegree[u] == 0) roots[rootCount++] = u;
+        }
+        for (int i = rootCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = roots[i];
+            roots[i] = roots[j];
+            roots[j] = tmp;
+        }
+
+        boolean[] seen = new boolean[count];
+        int[] stack = new int[count];
+        // Each node walks its successors cyclically from a random start
+        int[] first = new int[count];
+        int[] cursor = new int[count];
+        int nextRank = 0, nextPre = 0;
+        int rankSlot = 2 * t + 1;
+        for (int r = 0; r < rootCount; r++) {
+            int root = roots[r];
+            int top = 0;
+            stack[top++] = root;
+            seen[root] = true;
+            enter(root, t, nextPre++, random, first, cursor);
+            while (top > 0) {
+                int u = stack[top - 1];
+                int degree = offsets[u + 1] - offsets[u];
+                if (cursor[u] < degree) {
+                    int k = first[u] + cursor[u]++;
+                    int v = targets[offsets[u] + (k >= degree ? k - degree : k)];
+                    if (!seen[v]) {
+                        seen[v] = true;
+                        enter(v, t, nextPre++, random, first, cursor);
+                        stack[top++] = v;
+                    }
+                } else {
+                    labels[u * STRIDE + rankSlot] = nextRank++;
+                    top--;
+                }
+            }
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            int u = topoOrder[i];
+            int low = labels[u * STRIDE + rankSlot];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                low = Math.min(low, labels[targets[e] * STRIDE + 2 * t]);
+            }
+            labels[u * STRIDE + 2 * t] = low;
+        }
+        return 3L * count + 2L * dag.edgeCount();
+    }
+
+    /**
+     * Picks the {@code 64 * HUB_WORDS} components with the largest in-degree times out-degree
+     * product as hubs, then propagates hub bits backwards and forwards along the topological
+     * order, one word-wide OR per edge. Returns the work done.
+     */
+    private long labelHubs(int[] topoOrder) {
+        int[] offsets = dag.offsets, targets = dag.targets;
+        int[] inDegree = new int[count];
+        for (int e = 0; e < dag.edgeCount(); e++) {
+            inDegree[targets[e]]++;
+        }
+        // Score in the high half, component in the low half, so a primitive sort ranks them
+        long[] ranked = new long[count];
+        for (int u = 0; u < count; u++) {
+            long score = Math.min(Integer.MAX_VALUE, (long) (offsets[u + 1] - offsets[u] + 1) * (inDegree[u] + 1));
+            ranked[u] = score << 32 | u;
+        }
+        Arrays.sort(ranked);
+        int hubs = Math.min(64 * HUB_WORDS, count);
+        for (int h = 0; h < hubs; h++) {
+            int u = (int) ranked[count - 1 - h];
+            reachesHub[u * HUB_WORDS + (h >>> 6)] |= 1L << h;
+            reachedByHub[u * HUB_WORDS + (h >>> 6)] |= 1L << h;
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            int u = topoOrder[i];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                for (int w = 0; w < HUB_WORDS; w++) {
+                    reachesHub[u * HUB_WORDS + w] |= reachesHub[targets[e] * HUB_WORDS + w];
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int u = topoOrder[i];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                for (int w = 0; w < HUB_WORDS; w++) {
+                    reachedByHub[targets[e] * HUB_WORDS + w] |= reachedByHub[u * HUB_WORDS + w];
+                }
+            }
+        }
+        return 3L * count + 2L * HUB_WORDS * dag.edgeCount();
+    }
+
+    private void enter(int u, int t, int pre, SplittableRandom random, int[] first, int[] cursor) {
+        int degree = dag.offsets[u + 1] - dag.offsets[u];
+        first[u] = degree > 1 ? random.nextInt(degree) : 0;
+        cursor[u] = 0;
+        if (t == 0) {
+            labels[u * STRIDE + PRE] = pre;
+        }
+    }
+
+    /**
+     * Per-thread search state; {@code visited} is compared against a stamp so it never needs
+     * clearing between queries.
+     */
+    private static final class Scratch {
+        final int[] visited;
+        final int[] stack;
+        int stamp;
+
+        Scratch(int count) {
+            visited = new int[count];
+            stack = new int[count];
+        }
+
+        int nextStamp() {
+            if (++stamp == 0) {
+                Arrays.fill(visited, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package graph.scc;
+
+import graph.CSRGraph;
+import java.util.*;
+
+/**
+ * Builds the condensation DAG of a graph from its component mapping.
+ *
+ * Inter-component edges are bucketed by source component with a counting sort, then each
+ * bucket is deduplicated in place using a per-target-component stamp. The resulting CSR graph
+ * keeps the first-seen order of successors and carries, for every condensation edge, the
+ * maximum weight of the original edges it replaces, so it serves as both the unweighted and
+ * the weighted condensation.
+ */
+public final class Condensation {
+    private Condensation() {
+    }
+
+    public static CSRGraph build(CSRGraph graph, SCC.Components components) {
+        return build(graph, components.compId, components.count);
+    }
+
+    public static CSRGraph build(CSRGraph graph, int[] compId, int compCount) {
+        int n = graph.n;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+
+        // Pass 1: count inter-component edges per source component
+        int[] bucket = new int[compCount + 1];
+        for (int u = 0; u < n; u++) {
+            int compU = compId[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                if (compId[targets[e]] != compU) {
+                    bucket[compU + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < compCount; c++) {
+            bucket[c + 1] += bucket[c];
+        }
+
+        // Pass 2: scatter (compV, w) into source-component buckets, keeping edge order
+        int cross = bucket[compCount];
+        int[] dagTargets = new int[cross];
+        int[] dagWeights = new int[cross];
+        int[] cursor = Arrays.copyOf(bucket, compCount);
+        for (int u = 0; u < n; u++) {
+            int compU = compId[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int compV = compId[targets[e]];
+                if (compV != compU) {
+                    int pos = cursor[compU]++;
+                    dagTargets[pos] = compV;
+                    dagWeights[pos] = weights[e];
+                }
+            }
+        }
+
+        // Pass 3: dedupe each bucket in place; the write index never passes the read index
+        int[] dagOffsets = new int[compCount + 1];
+        int[] stamp = cursor;
+        Arrays.fill(stamp, -1);
+        int[] slot = new int[compCount];
+        int out = 0;
+        for (int c = 0; c < compCount; c++) {
+            for (int i = bucket[c]; i < bucket[c + 1]; i++) {
+                int v = dagTargets[i];
+                int w = dagWeights[i];
+                if (stamp[v] == c) {
+                    int s = slot[v];
+                    if (w > dagWeights[s]) {
+                        dagWeights[s] = w;
+                    }
+                } else {
+                    stamp[v] = c;
+                    slot[v] = out;
+                    dagTargets[out] = v;
+                    dagWeights[out] = Math.max(0, w);
+                    out++;
+                }
+            }
+            dagOffsets[c + 1] = out;
+        }
+
+        if (out < cross) {
+            dagTargets = Arrays.copyOf(dagTargets, out);
+            dagWeights = Arrays.copyOf(dagWeights, out);
+        }
+        return new CSRGraph(compCount, dagOffsets, dagTargets, dagWeights);
+    }
+}
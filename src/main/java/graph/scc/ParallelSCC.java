@@ -0,0 +1,419 @@
+package graph.scc;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Parallel SCC decomposition on a ForkJoinPool using trimming followed by
+ * forward-backward (FW-BW) splitting.
+ *
+ * Trimming peels nodes with no remaining out-edges, then nodes with no remaining in-edges,
+ * level by level with atomic degree counters; each peeled node is a singleton component.
+ * The remaining nodes are split repeatedly: the nodes both forward- and backward-reachable
+ * from a pivot form one component, and the forward-only, backward-only and unreached nodes
+ * become three independent partitions processed as separate tasks. Reachability searches are
+ * level-synchronous with each frontier expanded in parallel. Partitions small enough not to
+ * benefit from splitting are finished with Tarjan restricted to the partition.
+ *
+ * The partition equals the one {@link SCC} finds; components are numbered by their smallest node.
+ */
+public class ParallelSCC {
+    private static final int SEQUENTIAL_PARTITION = 4096;
+    private static final int SPLIT_FRONTIER = 1024;
+    /** A split that removes less than this fraction (1/THIN_SPLIT) of a partition hands the rest to Tarjan. */
+    private static final int THIN_SPLIT = 16;
+
+    private static final int OUT_TRIM = 0;
+    private static final int IN_TRIM = 1;
+    private static final int FORWARD = 2;
+    private static final int BACKWARD = 3;
+
+    private final int n;
+    private final CSRGraph graph;
+    private final CSRGraph reverse;
+    private final int parallelism;
+    private final Metrics metrics;
+
+    private int[] label;
+    private int[] color;
+    private int[] ids, low, cursor;
+    private AtomicIntegerArray outDegree, inDegree;
+    private AtomicIntegerArray forwardMark, backwardMark;
+    private final AtomicInteger nextLabel = new AtomicInteger();
+    private final AtomicInteger nextColor = new AtomicInteger(1);
+    private SCC.Components result;
+
+    public ParallelSCC(CSRGraph graph, int parallelism, Metrics metrics) {
+        this.n = graph.n;
+        this.graph = graph;
+        this.reverse = graph.transpose();
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+    }
+
+    public SCC.Components findComponents() {
+        if (result != null) {
+            return result;
+        }
+        label = new int[n];
+        color = new int[n];
+        ids = new int[n];
+        low = new int[n];
+        cursor = new int[n];
+        Arrays.fill(label, -1);
+        Arrays.fill(ids, -1);
+        forwardMark = new AtomicIntegerArray(label);
+        backwardMark = new AtomicIntegerArray(label);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    int[] remaining = trim();
+                    new PartitionTask(null, remaining, 0).invoke();
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        metrics.incrementOperationCount(); // For timing measurement
+        result = renumber();
+        return result;
+    }
+
+    private int[] trim() {
+        int[] degrees = new int[n];
+        for (int u = 0; u < n; u++) {
+            degrees[u] = graph.outDegree(u);
+        }
+        outDegree = new AtomicIntegerArray(degrees);
+        peel(OUT_TRIM, zeroDegreeNodes(outDegree));
+
+        Arrays.fill(degrees, 0);
+        for (int u = 0; u < n; u++) {
+            if (label[u] != -1) continue;
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                if (label[graph.targets[e]] == -1) {
+                    degrees[graph.targets[e]]++;
+                }
+            }
+        }
+        inDegree = new AtomicIntegerArray(degrees);
+        peel(IN_TRIM, zeroDegreeNodes(inDegree));
+
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (label[v] == -1) count++;
+        }
+        int[] remaining = new int[count];
+        count = 0;
+        for (int v = 0; v < n; v++) {
+            if (label[v] == -1) remaining[count++] = v;
+        }
+        return remaining;
+    }
+
+    private IntChunk zeroDegreeNodes(AtomicIntegerArray degree) {
+        int count = 0;
+        int[] nodes = new int[16];
+        for (int v = 0; v < n; v++) {
+            if (label[v] == -1 && degree.get(v) == 0) {
+                if (count == nodes.length) nodes = Arrays.copyOf(nodes, count * 2);
+                nodes[count++] = v;
+            }
+        }
+        return new IntChunk(nodes, count);
+    }
+
+    private void peel(int mode, IntChunk frontier) {
+        while (frontier.size > 0) {
+            frontier = new FrontierTask(mode, frontier.data, 0, frontier.size, 0).invoke();
+        }
+    }
+
+    private void search(int mode, int pivot, int c) {
+        IntChunk frontier = new IntChunk(new int[]{pivot}, 1);
+        while (frontier.size > 0) {
+            frontier = new FrontierTask(mode, frontier.data, 0, frontier.size, c).invoke();
+        }
+    }
+
+    private static boolean claim(AtomicIntegerArray marks, int v, int c) {
+        int current = marks.get(v);
+        return current != c && marks.compareAndSet(v, current, c);
+    }
+
+    private static final class IntChunk {
+        final int[] data;
+        final int size;
+
+        IntChunk(int[] data, int size) {
+            this.data = data;
+            this.size = size;
+        }
+
+        IntChunk concat(IntChunk other) {
+            if (size == 0) return other;
+            if (other.size == 0) return this;
+            int[] merged = Arrays.copyOf(data, size + other.size);
+            System.arraycopy(other.data, 0, merged, size, other.size);
+            return new IntChunk(merged, merged.length);
+        }
+    }
+
+    /**
+     * Expands one frontier slice and returns the nodes that make up the next frontier.
+     */
+    @SuppressWarnings("serial")
+    private final class FrontierTask extends RecursiveTask<IntChunk> {
+        private final int mode;
+        private final int[] frontier;
+        private final int from, to;
+        private final int c;
+
+        FrontierTask(int mode, int[] frontier, int from, int to, int c) {
+            this.mode = mode;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.c = c;
+        }
+
+        @Override
+        protected IntChunk compute() {
+            if (to - from > SPLIT_FRONTIER) {
+                int mid = (from + to) >>> 1;
+                FrontierTask left = new FrontierTask(mode, frontier, from, mid, c);
+                FrontierTask right = new FrontierTask(mode, frontier, mid, to, c);
+                left.fork();
+                IntChunk rightResult = right.compute();
+                return left.join().concat(rightResult);
+            }
+
+            CSRGraph g = (mode == OUT_TRIM || mode == BACKWARD) ? reverse : graph;
+            int[] offsets = g.offsets;
+            int[] targets = g.targets;
+            int[] next = new int[16];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                int v = frontier[i];
+                if (mode == OUT_TRIM || mode == IN_TRIM) {
+                    label[v] = nextLabel.getAndIncrement();
+                }
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    boolean added;
+                    switch (mode) {
+                        case OUT_TRIM:
+                            added = outDegree.decrementAndGet(w) == 0;
+                            break;
+                        case IN_TRIM:
+                            added = label[w] == -1 && inDegree.decrementAndGet(w) == 0;
+                            break;
+                        case FORWARD:
+                            added = color[w] == c && label[w] == -1 && claim(forwardMark, w, c);
+                            break;
+                        default:
+                            added = color[w] == c && label[w] == -1 && claim(backwardMark, w, c);
+                            break;
+                    }
+                    if (added) {
+                        if (size == next.length) next = Arrays.copyOf(next, size * 2);
+                        next[size++] = w;
+                    }
+                }
+            }
+            return new IntChunk(next, size);
+        }
+    }
+
+    /**
+     * Resolves all components among the unresolved nodes of color {@code c}.
+     *
+     * Each split keeps working on its largest partition in a loop and forks the other two, so
+     * nothing nests on the caller's stack however many components are peeled off one at a
+     * time. Tasks never join; each completes its parent once its forks have completed. When
+     * a split barely shrinks the partition, as on long chains of small cycles, the rest goes
+     * to Tarjan, which is linear where further splits would each rescan the partition.
+     */
+    @SuppressWarnings("serial")
+    private final class PartitionTask extends CountedCompleter<Void> {
+        private final int[] members;
+        private final int c;
+
+        PartitionTask(CountedCompleter<?> parent, int[] members, int c) {
+            super(parent);
+            this.members = members;
+            this.c = c;
+        }
+
+        @Override
+        public void compute() {
+            int[] part = members;
+            int partColor = c;
+            while (part.length > SEQUENTIAL_PARTITION) {
+                int[][] children = new int[3][];
+                int[] colors = new int[3];
+                split(part, partColor, children, colors);
+
+                int largest = 0;
+                for (int i = 1; i < 3; i++) {
+                    if (children[i].length > children[largest].length) largest = i;
+                }
+                for (int i = 0; i < 3; i++) {
+                    if (i != largest && children[i].length > 0) {
+                        addToPendingCount(1);
+                        new PartitionTask(this, children[i], colors[i]).fork();
+                    }
+                }
+
+                boolean thin = part.length - children[largest].length < part.length / THIN_SPLIT;
+                part = children[largest];
+                partColor = colors[largest];
+                if (thin) {
+                    break;
+                }
+            }
+            if (part.length > 0) {
+                tarjan(part, partColor);
+            }
+            tryComplete();
+        }
+    }
+
+    /**
+     * One forward-backward split of the nodes of color {@code c}: labels the pivot's component
+     * and recolors the forward-only, backward-only and unreached nodes into three partitions.
+     */
+    private void split(int[] members, int c, int[][] children, int[] colors) {
+        int pivot = members[0];
+        forwardMark.set(pivot, c);
+        backwardMark.set(pivot, c);
+        search(FORWARD, pivot, c);
+        search(BACKWARD, pivot, c);
+
+        int sccLabel = nextLabel.getAndIncrement();
+        int forwardOnly = 0, backwardOnly = 0, neither = 0;
+        for (int v : members) {
+            boolean f = forwardMark.get(v) == c;
+            boolean b = backwardMark.get(v) == c;
+            if (f && b) label[v] = sccLabel;
+            else if (f) forwardOnly++;
+            else if (b) backwardOnly++;
+            else neither++;
+        }
+
+        int[] fwd = new int[forwardOnly];
+        int[] bwd = new int[backwardOnly];
+        int[] rest = new int[neither];
+        int colorF = nextColor.getAndIncrement();
+        int colorB = nextColor.getAndIncrement();
+        int colorR = nextColor.getAndIncrement();
+        forwardOnly = backwardOnly = neither = 0;
+        for (int v : members) {
+            if (label[v] != -1) continue;
+            if (forwardMark.get(v) == c) {
+                color[v] = colorF;
+                fwd[forwardOnly++] = v;
+            } else if (backwardMark.get(v) == c) {
+                color[v] = colorB;
+                bwd[backwardOnly++] = v;
+            } else {
+                color[v] = colorR;
+                rest[neither++] = v;
+            }
+        }
+        children[0] = fwd;
+        children[1] = bwd;
+        children[2] = rest;
+        colors[0] = colorF;
+        colors[1] = colorB;
+        colors[2] = colorR;
+    }
+
+    /**
+     * Iterative Tarjan over the unresolved nodes of color {@code c}. The per-node scratch
+     * arrays are shared between tasks, which is safe because partitions are disjoint.
+     */
+    private void tarjan(int[] members, int c) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] callStack = new int[members.length];
+        int[] stack = new int[members.length];
+        int id = 0, sp = 0, top = 0;
+
+        for (int root : members) {
+            if (ids[root] != -1 || label[root] != -1) continue;
+
+            ids[root] = low[root] = id++;
+            cursor[root] = offsets[root];
+            stack[top++] = root;
+            callStack[sp++] = root;
+
+            while (sp > 0) {
+                int at = callStack[sp - 1];
+                if (cursor[at] < offsets[at + 1]) {
+                    int to = targets[cursor[at]++];
+                    if (color[to] != c) continue;
+                    if (ids[to] == -1) {
+                        if (label[to] != -1) continue; // Resolved before this partition was formed
+                        ids[to] = low[to] = id++;
+                        cursor[to] = offsets[to];
+                        stack[top++] = to;
+                        callStack[sp++] = to;
+                    } else if (label[to] == -1) {
+                        low[at] = Math.min(low[at], low[to]);
+                    }
+                    continue;
+                }
+
+                sp--;
+                if (ids[at] == low[at]) {
+                    int sccLabel = nextLabel.getAndIncrement();
+                    int node;
+                    do {
+                        node = stack[--top];
+                        label[node] = sccLabel;
+                    } while (node != at);
+                }
+                if (sp > 0 && label[at] == -1) {
+                    int parent = callStack[sp - 1];
+                    low[parent] = Math.min(low[parent], low[at]);
+                }
+            }
+        }
+    }
+
+    private SCC.Components renumber() {
+        int[] canonical = new int[nextLabel.get()];
+        Arrays.fill(canonical, -1);
+        int[] compId = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int l = label[v];
+            if (canonical[l] == -1) {
+                canonical[l] = count++;
+            }
+            compId[v] = canonical[l];
+        }
+
+        int[] offsets = new int[count + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[compId[v] + 1]++;
+        }
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] nodes = new int[n];
+        int[] fill = Arrays.copyOf(offsets, count);
+        for (int v = 0; v < n; v++) {
+            nodes[fill[compId[v]]++] = v;
+        }
+        return new SCC.Components(count, compId, offsets, nodes);
+    }
+}
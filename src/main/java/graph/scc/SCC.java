@@ -1,104 +1,187 @@
 package graph.scc;
 
+import graph.CSRGraph;
 import graph.Metrics;
 import java.util.*;
 
+/**
+ * Tarjan's SCC algorithm driven by an explicit call stack, so recursion depth does not
+ * depend on the length of dependency chains. Components are numbered in completion order,
+ * which is a reverse topological order of the condensation.
+ */
 public class SCC {
     private int n;
-    private List<List<Integer>> adj;
-    private int[] low, ids;
-    private boolean[] onStack;
-    private Deque<Integer> stack;
-    private int id, sccCount;
-    private List<List<Integer>> components;
+    private CSRGraph graph;
+    private Components result;
     private Metrics metrics;
 
-    public SCC(int n, List<List<Integer>> adj, Metrics metrics) {
-        this.n = n;
-        this.adj = adj;
-        this.metrics = metrics;
-        this.low = new int[n];
-        this.ids = new int[n];
-        this.onStack = new boolean[n];
-        this.stack = new ArrayDeque<>();
-        this.components = new ArrayList<>();
-        Arrays.fill(ids, -1);
-    }
+    /**
+     * Components packed into flat arrays: the members of component {@code c} are
+     * {@code nodes[offsets[c] .. offsets[c + 1])}, and {@code compId[v]} is the component of node {@code v}.
+     */
+    public static class Components {
+        public final int count;
+        public final int[] compId;
+        public final int[] offsets;
+        public final int[] nodes;
 
-    public List<List<Integer>> findSCCs() {
-        metrics.reset();
-        long startTime = System.nanoTime();
+        public Components(int count, int[] compId, int[] offsets, int[] nodes) {
+            this.count = count;
+            this.compId = compId;
+            this.offsets = offsets;
+            this.nodes = nodes;
+        }
 
-        for (int i = 0; i < n; i++) {
-            if (ids[i] == -1) {
-                dfs(i);
+        public int size(int c) {
+            return offsets[c + 1] - offsets[c];
+        }
+
+        public int largestSize() {
+            int max = 0;
+            for (int c = 0; c < count; c++) {
+                max = Math.max(max, size(c));
             }
+            return max;
         }
 
-        metrics.incrementOperationCount(); // For timing measurement
-        return components;
-    }
+        public int smallestSize() {
+            if (count == 0) return 0;
+            int min = Integer.MAX_VALUE;
+            for (int c = 0; c < count; c++) {
+                min = Math.min(min, size(c));
+            }
+            return min;
+        }
 
-    private void dfs(int at) {
-        metrics.incrementOperationCount();
-        stack.push(at);
-        onStack[at] = true;
-        ids[at] = low[at] = id++;
+        public double averageSize() {
+            return count == 0 ? 0 : (double) nodes.length / count;
+        }
 
-        for (int to : adj.get(at)) {
-            metrics.incrementOperationCount(); // Edge visit
-            if (ids[to] == -1) {
-                dfs(to);
-            }
-            if (onStack[to]) {
-                low[at] = Math.min(low[at], low[to]);
+        public int[][] toArrays() {
+            int[][] arrays = new int[count][];
+            for (int c = 0; c < count; c++) {
+                arrays[c] = Arrays.copyOfRange(nodes, offsets[c], offsets[c + 1]);
             }
+            return arrays;
         }
+    }
 
-        if (ids[at] == low[at]) {
-            List<Integer> component = new ArrayList<>();
-            while (!stack.isEmpty()) {
-                int node = stack.pop();
-                onStack[node] = false;
-                low[node] = ids[at];
-                component.add(node);
-                if (node == at) break;
+    public SCC(int n, List<List<Integer>> adj, Metrics metrics) {
+        this(CSRGraph.fromAdjacencyList(adj), metrics);
+    }
+
+    public SCC(CSRGraph graph, Metrics metrics) {
+        this.n = graph.n;
+        this.graph = graph;
+        this.metrics = metrics;
+    }
+
+    public List<List<Integer>> findSCCs() {
+        Components comps = findComponents();
+        List<List<Integer>> components = new ArrayList<>(comps.count);
+        for (int c = 0; c < comps.count; c++) {
+            List<Integer> component = new ArrayList<>(comps.size(c));
+            for (int i = comps.offsets[c]; i < comps.offsets[c + 1]; i++) {
+                component.add(comps.nodes[i]);
             }
             components.add(component);
-            sccCount++;
         }
+        return components;
     }
 
-    public List<List<Integer>> getCondensationGraph() {
-        List<List<Integer>> condensation = new ArrayList<>();
-        for (int i = 0; i < sccCount; i++) {
-            condensation.add(new ArrayList<>());
+    public Components findComponents() {
+        if (result != null) {
+            return result;
         }
-
-        // Map each node to its component ID
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] ids = new int[n];
+        int[] low = new int[n];
+        int[] cursor = new int[n];
+        int[] callStack = new int[n];
+        int[] stack = new int[n];
         int[] compId = new int[n];
-        for (int i = 0; i < components.size(); i++) {
-            for (int node : components.get(i)) {
-                compId[node] = i;
-            }
-        }
+        int[] compOffsets = new int[n + 1];
+        int[] nodes = new int[n];
+        Arrays.fill(ids, -1);
+        Arrays.fill(compId, -1);
+
+        int id = 0, sp = 0, top = 0, count = 0, emitted = 0;
+        long ops = 0;
+        for (int root = 0; root < n; root++) {
+            if (ids[root] != -1) continue;
+
+            ops++;
+            ids[root] = low[root] = id++;
+            cursor[root] = offsets[root];
+            stack[top++] = root;
+            callStack[sp++] = root;
 
-        // Build condensation graph edges
-        Set<String> edges = new HashSet<>();
-        for (int u = 0; u < n; u++) {
-            for (int v : adj.get(u)) {
-                int compU = compId[u];
-                int compV = compId[v];
-                if (compU != compV) {
-                    String edge = compU + "->" + compV;
-                    if (!edges.contains(edge)) {
-                        edges.add(edge);
-                        condensation.get(compU).add(compV);
+            while (sp > 0) {
+                int at = callStack[sp - 1];
+                if (cursor[at] < offsets[at + 1]) {
+                    ops++; // Edge visit
+                    int to = targets[cursor[at]++];
+                    if (ids[to] == -1) {
+                        ops++;
+                        ids[to] = low[to] = id++;
+                        cursor[to] = offsets[to];
+                        stack[top++] = to;
+                        callStack[sp++] = to;
+                    } else if (compId[to] == -1) {
+                        // Still on the Tarjan stack
+                        low[at] = Math.min(low[at], low[to]);
                     }
+                    continue;
+                }
+
+                sp--;
+                if (ids[at] == low[at]) {
+                    int node;
+                    do {
+                        node = stack[--top];
+                        compId[node] = count;
+                        nodes[emitted++] = node;
+                    } while (node != at);
+                    compOffsets[++count] = emitted;
+                }
+                if (sp > 0 && compId[at] == -1) {
+                    int parent = callStack[sp - 1];
+                    low[parent] = Math.min(low[parent], low[at]);
                 }
             }
         }
 
+        metrics.addOperationCount(ops + 1);
+        result = new Components(count, compId, Arrays.copyOf(compOffsets, count + 1), nodes);
+        return result;
+    }
+
+    /**
+     * Component id of every node, indexed like {@link #findSCCs()}'s result.
+     */
+    public int[] getComponentIds() {
+        return findComponents().compId;
+    }
+
+    public List<List<Integer>> getCondensationGraph() {
+        CSRGraph dag = getCondensationCSR();
+        List<List<Integer>> condensation = new ArrayList<>();
+        for (int c = 0; c < dag.n; c++) {
+            List<Integer> successors = new ArrayList<>(dag.outDegree(c));
+            for (int e = dag.offsets[c]; e < dag.offsets[c + 1]; e++) {
+                successors.add(dag.targets[e]);
+            }
+            condensation.add(successors);
+        }
         return condensation;
     }
+
+    /**
+     * Condensation DAG in CSR form. Each edge carries the maximum weight of the
+     * original edges between its two components.
+     */
+    public CSRGraph getCondensationCSR() {
+        return Condensation.build(graph, findComponents());
+    }
 }
\ No newline at end of file
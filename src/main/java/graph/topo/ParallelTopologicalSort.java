@@ -0,0 +1,172 @@
+package graph.topo;
+
+import graph.CSRGraph;
+import graph.Metrics;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Level-synchronous Kahn's algorithm on a ForkJoinPool.
+ *
+ * Wave 0 holds the nodes without in-edges; wave {@code k + 1} holds the nodes whose last
+ * remaining predecessor is in wave {@code k}. Each wave is expanded in parallel with atomic
+ * in-degree decrements, and the nodes it releases are appended to the shared order array in
+ * per-task blocks. The nodes of one wave have no edges between them, so a wave is a batch of
+ * tasks that can run concurrently once the previous waves are done. Within a wave nodes are
+ * sorted ascending, which makes the result independent of scheduling.
+ */
+public class ParallelTopologicalSort {
+    private static final int SPLIT_FRONTIER = 1024;
+
+    private final CSRGraph graph;
+    private final int parallelism;
+    private final Metrics metrics;
+
+    private AtomicIntegerArray inDegree;
+    private int[] order;
+    private final AtomicInteger tail = new AtomicInteger();
+
+    /**
+     * A topological order grouped into waves: wave {@code k} is
+     * {@code order[waveOffsets[k] .. waveOffsets[k + 1])}.
+     */
+    public static class Waves {
+        public final int[] order;
+        public final int[] waveOffsets;
+
+        public Waves(int[] order, int[] waveOffsets) {
+            this.order = order;
+            this.waveOffsets = waveOffsets;
+        }
+
+        public int count() {
+            return waveOffsets.length - 1;
+        }
+
+        public int size(int wave) {
+            return waveOffsets[wave + 1] - waveOffsets[wave];
+        }
+
+        public int largestSize() {
+            int max = 0;
+            for (int k = 0; k < count(); k++) {
+                max = Math.max(max, size(k));
+            }
+            return max;
+        }
+
+        /**
+         * Wave index of every node.
+         */
+        public int[] waveOf() {
+            int[] wave = new int[order.length];
+            for (int k = 0; k < count(); k++) {
+                for (int i = waveOffsets[k]; i < waveOffsets[k + 1]; i++) {
+                    wave[order[i]] = k;
+                }
+            }
+            return wave;
+        }
+    }
+
+    public ParallelTopologicalSort(CSRGraph graph, int parallelism, Metrics metrics) {
+        this.graph = graph;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the graph has a cycle
+     */
+    public Waves sort() {
+        int n = graph.n;
+        int[] targets = graph.targets;
+        int[] degrees = new int[n];
+        for (int e = 0; e < graph.offsets[n]; e++) {
+            degrees[targets[e]]++;
+        }
+        metrics.addOperationCount(graph.offsets[n]);
+
+        order = new int[n];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            if (degrees[v] == 0) {
+                order[size++] = v;
+            }
+        }
+        inDegree = new AtomicIntegerArray(degrees);
+        tail.set(size);
+
+        int[] waveOffsets = new int[16];
+        int waves = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int head = 0;
+            while (head < size) {
+                if (waves + 1 >= waveOffsets.length) waveOffsets = Arrays.copyOf(waveOffsets, waveOffsets.length * 2);
+                waveOffsets[++waves] = size;
+                if (size - head > SPLIT_FRONTIER) {
+                    pool.invoke(new WaveTask(head, size));
+                } else {
+                    new WaveTask(head, size).compute();
+                }
+                head = size;
+                size = tail.get();
+                Arrays.sort(order, head, size);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (size != n) {
+            throw new IllegalArgumentException("Graph has a cycle: " + (n - size) + " of " + n +
+                    " nodes could not be ordered");
+        }
+        return new Waves(order, Arrays.copyOf(waveOffsets, waves + 1));
+    }
+
+    /**
+     * Expands one slice of the current wave, appending the nodes it releases to {@code order}.
+     */
+    @SuppressWarnings("serial")
+    private final class WaveTask extends RecursiveAction {
+        private final int from, to;
+
+        WaveTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_FRONTIER) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new WaveTask(from, mid), new WaveTask(mid, to));
+                return;
+            }
+
+            int[] offsets = graph.offsets;
+            int[] targets = graph.targets;
+            int[] released = new int[16];
+            int count = 0;
+            long ops = 0;
+            for (int i = from; i < to; i++) {
+                int u = order[i];
+                ops++;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    ops++;
+                    int v = targets[e];
+                    if (inDegree.decrementAndGet(v) == 0) {
+                        if (count == released.length) released = Arrays.copyOf(released, count * 2);
+                        released[count++] = v;
+                    }
+                }
+            }
+            if (count > 0) {
+                System.arraycopy(released, 0, order, tail.getAndAdd(count), count);
+            }
+            metrics.addOperationCount(ops);
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package graph.topo;
 
+import graph.CSRGraph;
 import graph.Metrics;
 import java.util.*;
 
+/**
+ * Kahn's algorithm over a CSR graph, with a preallocated int array as the queue. Inputs
+ * containing a cycle are rejected with an {@link IllegalArgumentException} rather than
+ * returning a partial order.
+ */
 public class TopologicalSort {
     private Metrics metrics;
 
@@ -10,45 +16,75 @@ public class TopologicalSort {
         this.metrics = metrics;
     }
 
+    /**
+     * Boxed adapter over {@link #kahnTopoSort(CSRGraph)}.
+     */
     public List<Integer> kahnTopoSort(List<List<Integer>> graph) {
-        metrics.reset();
-        long startTime = System.nanoTime();
+        int[] order = kahnTopoSort(CSRGraph.fromAdjacencyList(graph));
+        List<Integer> topoOrder = new ArrayList<>(order.length);
+        for (int u : order) {
+            topoOrder.add(u);
+        }
+        return topoOrder;
+    }
 
-        int n = graph.size();
+    /**
+     * Topological order of all nodes, ready to pass to
+     * {@link graph.dagsp.DAGShortestPath#shortestPath(CSRGraph, int[], int)}.
+     *
+     * @throws IllegalArgumentException if the graph has a cycle
+     */
+    public int[] kahnTopoSort(CSRGraph graph) {
+        int n = graph.n;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
         int[] inDegree = new int[n];
+        long ops = 0;
 
         // Calculate in-degrees
-        for (int u = 0; u < n; u++) {
-            for (int v : graph.get(u)) {
-                metrics.incrementOperationCount();
-                inDegree[v]++;
-            }
+        for (int e = 0; e < offsets[n]; e++) {
+            ops++;
+            inDegree[targets[e]]++;
         }
 
-        // Initialize queue with nodes having 0 in-degree
-        Queue<Integer> queue = new LinkedList<>();
+        // Every node enters the queue exactly once, so the order array doubles as the queue
+        int[] order = new int[n];
+        int tail = 0;
         for (int i = 0; i < n; i++) {
-            metrics.incrementOperationCount();
+            ops++;
             if (inDegree[i] == 0) {
-                queue.offer(i);
+                order[tail++] = i;
             }
         }
 
-        List<Integer> topoOrder = new ArrayList<>();
-        while (!queue.isEmpty()) {
-            metrics.incrementOperationCount();
-            int u = queue.poll();
-            topoOrder.add(u);
+        int head = 0;
+        while (head < tail) {
+            ops++;
+            int u = order[head++];
 
-            for (int v : graph.get(u)) {
-                metrics.incrementOperationCount();
-                inDegree[v]--;
-                if (inDegree[v] == 0) {
-                    queue.offer(v);
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                ops++;
+                int v = targets[e];
+                if (--inDegree[v] == 0) {
+                    order[tail++] = v;
                 }
             }
         }
 
-        return topoOrder;
+        metrics.addOperationCount(ops);
+        if (tail != n) {
+            throw new IllegalArgumentException("Graph has a cycle: " + (n - tail) + " of " + n +
+                    " nodes could not be ordered, e.g. node " + firstUnordered(inDegree));
+        }
+        return order;
+    }
+
+    private static int firstUnordered(int[] inDegree) {
+        for (int u = 0; u < inDegree.length; u++) {
+            if (inDegree[u] > 0) {
+                return u;
+            }
+        }
+        return -1;
     }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package graph;
+
+import graph.gen.SyntheticGraphGenerator;
+import graph.io.GraphInput;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.*;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisServerTest {
+    private Path directory;
+    private AnalysisServer server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("analysis-server");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.stop();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private void start(long capacityBytes) throws IOException {
+        server = new AnalysisServer(Main.Options.parse(new String[0], 0), capacityBytes, 2,
+                new PrintStream(OutputStream.nullOutputStream()));
+        port = server.start(0);
+    }
+
+    private Path graph(String name, int nodes, long seed) throws IOException {
+        SyntheticGraphGenerator.Config config = new SyntheticGraphGenerator.Config();
+        config.nodes = nodes;
+        config.edges = 4L * nodes;
+        config.layers = 20;
+        config.maxSccSize = 10;
+        config.seed = seed;
+        config.threads = 1;
+        Path file = directory.resolve(name);
+        new SyntheticGraphGenerator(config).write(file);
+        return file;
+    }
+
+    private JsonObject get(String endpoint, Path file, String params) throws IOException {
+        String query = file == null ? "" : "?file=" + URLEncoder.encode(file.toString(), StandardCharsets.UTF_8) + params;
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + endpoint + query).openConnection();
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            JsonObject body = JsonParser.parseReader(reader).getAsJsonObject();
+            body.addProperty("status", status);
+            return body;
+        }
+    }
+
+    private static int[] ints(JsonArray array) {
+        int[] values = new int[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i).getAsInt();
+        }
+        return values;
+    }
+
+    @Test
+    void testServesCachedAnalysis() throws IOException {
+        start(1L << 30);
+        Path file = graph("schedule.bin", 5000, 1);
+        Main.Analysis expected = Main.analyze(GraphInput.load(file), Main.Options.parse(new String[0], 0),
+                new PhaseMetrics(), new PrintStream(OutputStream.nullOutputStream()));
+
+        JsonObject first = get("/analyze", file, "");
+        assertEquals(200, first.get("status").getAsInt());
+        assertFalse(first.get("cached").getAsBoolean());
+        assertEquals(5000, first.get("nodes").getAsInt());
+        assertEquals(expected.components.count, first.get("scc_count").getAsInt());
+        assertEquals(expected.longest.criticalPathLength, first.get("critical_path_length").getAsLong());
+        assertArrayEquals(expected.longest.criticalPath, ints(first.getAsJsonArray("critical_path")));
+
+        JsonObject path = get("/critical-path", file, "");
+        assertTrue(path.get("cached").getAsBoolean());
+        assertEquals(expected.longest.criticalPathLength, path.get("critical_path_length").getAsLong());
+
+        int node = 1234;
+        JsonObject component = get("/components", file, "&node=" + node);
+        int c = expected.components.compId[node];
+        assertEquals(c, component.get("component").getAsInt());
+        assertEquals(expected.components.size(c), component.getAsJsonArray("members").size());
+
+        int end = expected.longest.criticalPath[expected.longest.criticalPath.length - 1];
+        int target = expected.components.nodes[expected.components.offsets[end]];
+        JsonObject distances = get("/distances", file, "&to=" + target);
+        assertTrue(distances.get("reachable").getAsBoolean());
+        assertEquals(expected.shortest.distances[end], distances.get("shortest").getAsLong());
+        assertEquals(expected.longest.criticalPathLength, distances.get("longest").getAsLong());
+        assertArrayEquals(expected.longest.criticalPath, ints(distances.getAsJsonArray("longest_path")));
+
+        // The target cannot reach back to the source's component
+        int source = expected.components.nodes[expected.components.offsets[expected.source]];
+        assertFalse(get("/distances", file, "&from=" + target + "&to=" + source).get("reachable").getAsBoolean());
+        assertTrue(get("/reaches", file, "&from=" + source + "&to=" + target).get("reaches").getAsBoolean());
+        assertFalse(get("/reaches", file, "&from=" + target + "&to=" + source).get("reaches").getAsBoolean());
+
+        JsonObject stats = get("/stats", null, "");
+        assertEquals(1, stats.get("entries").getAsInt());
+        assertEquals(1, stats.get("misses").getAsInt());
+        assertTrue(stats.get("hits").getAsInt() >= 6);
+
+        assertEquals(400, get("/components", file, "&node=5000").get("status").getAsInt());
+        assertEquals(404, get("/analyze", directory.resolve("missing.bin"), "").get("status").getAsInt());
+    }
+
+    @Test
+    void testReanalyzesChangedFiles() throws IOException {
+        start(1L << 30);
+        Path file = graph("schedule.bin", 3000, 1);
+        assertFalse(get("/analyze", file, "").get("cached").getAsBoolean());
+        assertTrue(get("/analyze", file, "").get("cached").getAsBoolean());
+
+        Files.move(graph("other.bin", 4000, 2), file, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        JsonObject changed = get("/analyze", file, "");
+        assertFalse(changed.get("cached").getAsBoolean());
+        assertEquals(4000, changed.get("nodes").getAsInt());
+        assertEquals(1, get("/stats", null, "").get("entries").getAsInt());
+
+        assertTrue(get("/evict", file, "").get("evicted").getAsBoolean());
+        assertFalse(get("/analyze", file, "").get("cached").getAsBoolean());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        Path a = graph("a.bin", 4000, 1);
+        Path b = graph("b.bin", 4000, 2);
+        Path c = graph("c.bin", 4000, 3);
+        start(1L << 30);
+        get("/analyze", a, "");
+        long entryBytes = get("/stats", null, "").get("bytes").getAsLong();
+        server.stop();
+
+        // Room for two graphs of this size
+        start(entryBytes * 5 / 2);
+        get("/analyze", a, "");
+        get("/analyze", b, "");
+        get("/analyze", a, "");
+        get("/analyze", c, "");
+
+        JsonObject stats = get("/stats", null, "");
+        assertEquals(2, stats.get("entries").getAsInt());
+        assertEquals(1, stats.get("evictions").getAsInt());
+        assertTrue(stats.get("bytes").getAsLong() <= stats.get("capacity_bytes").getAsLong());
+        assertTrue(get("/analyze", a, "").get("cached").getAsBoolean());
+        assertTrue(get("/analyze", c, "").get("cached").getAsBoolean());
+        assertFalse(get("/analyze", b, "").get("cached").getAsBoolean());
+    }
+}
@@ -0,0 +1,79 @@
+package graph;
+
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphInput;
+import org.junit.jupiter.api.Test;
+import java.io.*;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryGraphFormatTest {
+
+    @Test
+    void testRoundTrip() throws Exception {
+        int[] us = {0, 2, 1, 0};
+        int[] vs = {1, 0, 2, 2};
+        int[] ws = {5, 7, 3, 9};
+        CSRGraph graph = CSRGraph.fromEdges(3, us, vs, ws, us.length);
+        GraphInput original = new GraphInput(3, 1, "edge", graph);
+
+        Path file = Files.createTempFile("graph", BinaryGraphFormat.EXTENSION);
+        try {
+            BinaryGraphFormat.write(original, file);
+            GraphInput loaded = GraphInput.load(file);
+
+            assertEquals(3, loaded.n);
+            assertEquals(1, loaded.source);
+            assertEquals("edge", loaded.weightModel);
+            assertArrayEquals(graph.offsets, loaded.graph.offsets);
+            assertArrayEquals(graph.targets, loaded.graph.targets);
+            assertArrayEquals(graph.weights, loaded.graph.weights);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testRejectsTruncatedFile() throws Exception {
+        Path file = Files.createTempFile("graph", BinaryGraphFormat.EXTENSION);
+        try {
+            BinaryGraphFormat.write(new GraphInput(2, 0, null,
+                    CSRGraph.fromEdges(2, new int[]{0}, new int[]{1}, new int[]{1}, 1)), file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 4));
+
+            assertThrows(IOException.class, () -> GraphInput.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testRejectsOutOfRangeTargetsAndOffsets() throws Exception {
+        Path file = Files.createTempFile("graph", BinaryGraphFormat.EXTENSION);
+        try {
+            BinaryGraphFormat.write(new GraphInput(2, 0, null,
+                    CSRGraph.fromEdges(2, new int[]{0}, new int[]{1}, new int[]{1}, 1)), file);
+            byte[] bytes = Files.readAllBytes(file);
+            // Layout ends with offsets {0, 1, 1}, targets {1}, weights {1}
+            int target = bytes.length - 8;
+            int lastOffset = target - 4;
+
+            byte[] badTarget = bytes.clone();
+            badTarget[target] = 2;
+            Files.write(file, badTarget);
+            assertThrows(IOException.class, () -> GraphInput.load(file));
+
+            byte[] badOffset = bytes.clone();
+            badOffset[lastOffset] = 0;
+            Files.write(file, badOffset);
+            assertThrows(IOException.class, () -> GraphInput.load(file));
+
+            Files.write(file, bytes);
+            assertEquals(1, GraphInput.load(file).graph.targets[0]);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package graph;
+
+import graph.io.ColumnarResultFormat;
+import org.junit.jupiter.api.Test;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarResultFormatTest {
+
+    @Test
+    void testRoundTripForEveryCompression() throws Exception {
+        Random random = new Random(3);
+        int[] ints = random.ints(300_000, -1, 1000).toArray();
+        long[] longs = random.longs(300_000).toArray();
+        longs[0] = Long.MIN_VALUE;
+        longs[1] = Long.MAX_VALUE;
+
+        for (ColumnarResultFormat.Compression compression : ColumnarResultFormat.Compression.values()) {
+            Path directory = Files.createTempDirectory("columnar");
+            try {
+                ColumnarResultFormat.Manifest manifest = new ColumnarResultFormat.Manifest();
+                manifest.dataset = "test";
+                manifest.criticalPathLength = 1L << 40;
+                try (ColumnarResultFormat.Writer writer =
+                             new ColumnarResultFormat.Writer(directory, compression, manifest)) {
+                    writer.ints("ints", ints).ints("slice", ints, 10, 20).longs("longs", longs).finish();
+                }
+
+                ColumnarResultFormat.Manifest loaded = ColumnarResultFormat.readManifest(directory);
+                assertEquals(compression.label, loaded.compression);
+                assertEquals(1L << 40, loaded.criticalPathLength);
+                assertArrayEquals(ints, ColumnarResultFormat.readInts(directory, loaded.column("ints")));
+                assertArrayEquals(java.util.Arrays.copyOfRange(ints, 10, 20),
+                        ColumnarResultFormat.readInts(directory, loaded.column("slice")));
+                assertArrayEquals(longs, ColumnarResultFormat.readLongs(directory, loaded.column("longs")));
+
+                if (compression == ColumnarResultFormat.Compression.NONE) {
+                    ByteBuffer mapped = ColumnarResultFormat.map(directory, loaded.column("longs"));
+                    assertEquals(longs[12345], mapped.getLong(8 * 12345));
+                } else {
+                    assertTrue(loaded.column("ints").storedBytes < 4L * ints.length);
+                    assertThrows(IOException.class, () -> ColumnarResultFormat.map(directory, loaded.column("ints")));
+                }
+            } finally {
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDetectsCorruptColumn() throws Exception {
+        Path directory = Files.createTempDirectory("columnar");
+        try {
+            try (ColumnarResultFormat.Writer writer = new ColumnarResultFormat.Writer(directory,
+                    ColumnarResultFormat.Compression.NONE, new ColumnarResultFormat.Manifest())) {
+                writer.ints("ints", new int[]{1, 2, 3}).finish();
+            }
+            ColumnarResultFormat.Manifest manifest = ColumnarResultFormat.readManifest(directory);
+            Files.write(directory.resolve(manifest.column("ints").file), new byte[12]);
+            assertThrows(IOException.class, () -> ColumnarResultFormat.readInts(directory, manifest.column("ints")));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    void testFailedWriteLeavesNoManifest() throws Exception {
+        Path directory = Files.createTempDirectory("columnar");
+        try {
+            try (ColumnarResultFormat.Writer writer = new ColumnarResultFormat.Writer(directory,
+                    ColumnarResultFormat.Compression.NONE, new ColumnarResultFormat.Manifest())) {
+                writer.ints("ints", new int[]{1, 2, 3}).finish();
+            }
+            assertTrue(Files.exists(directory.resolve(ColumnarResultFormat.MANIFEST)));
+
+            // A rewrite whose second column fails must not leave the old manifest describing new files
+            assertThrows(IndexOutOfBoundsException.class, () -> {
+                try (ColumnarResultFormat.Writer writer = new ColumnarResultFormat.Writer(directory,
+                        ColumnarResultFormat.Compression.NONE, new ColumnarResultFormat.Manifest())) {
+                    writer.ints("ints", new int[]{4, 5, 6}).ints("slice", new int[]{1}, 0, 2).finish();
+                }
+            });
+            assertFalse(Files.exists(directory.resolve(ColumnarResultFormat.MANIFEST)));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+}
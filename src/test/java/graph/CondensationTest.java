@@ -0,0 +1,31 @@
+package graph;
+
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CondensationTest {
+
+    @Test
+    void testParallelEdgesCollapseToMaxWeight() {
+        // SCC A = {0,1}, SCC B = {2,3}; three A->B edges with weights 4, 9, 2
+        int[] us = {0, 1, 0, 1, 2, 3, 1};
+        int[] vs = {1, 0, 2, 3, 3, 2, 2};
+        int[] ws = {1, 1, 4, 9, 1, 1, 2};
+        CSRGraph graph = CSRGraph.fromEdges(4, us, vs, ws, us.length);
+
+        SCC.Components components = new SCC(graph, new BasicMetrics()).findComponents();
+        CSRGraph dag = Condensation.build(graph, components);
+
+        int a = components.compId[0];
+        int b = components.compId[2];
+        assertEquals(2, dag.n);
+        assertEquals(1, dag.edgeCount());
+        assertEquals(1, dag.outDegree(a));
+        assertEquals(0, dag.outDegree(b));
+        assertEquals(b, dag.targets[dag.offsets[a]]);
+        assertEquals(9, dag.weights[dag.offsets[a]]);
+    }
+}
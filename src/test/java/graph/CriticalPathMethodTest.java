@@ -0,0 +1,110 @@
+package graph;
+
+import graph.dagsp.CriticalPathMethod;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CriticalPathMethodTest {
+
+    /** Earliest starts with task {@code delayed} forced to start {@code delay} after its earliest start. */
+    private static long[] forward(CSRGraph dag, int[] order, long[] durations, long[] base, int delayed, long delay) {
+        long[] start = new long[dag.n];
+        for (int u : order) {
+            if (u == delayed) {
+                start[u] = Math.max(start[u], base[u] + delay);
+            }
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                int v = dag.targets[e];
+                start[v] = Math.max(start[v], start[u] + durations[u] + dag.weights[e]);
+            }
+        }
+        return start;
+    }
+
+    private static long finish(long[] start, long[] durations) {
+        long finish = 0;
+        for (int u = 0; u < start.length; u++) {
+            finish = Math.max(finish, start[u] + durations[u]);
+        }
+        return finish;
+    }
+
+    /** Whether delaying {@code u} moves the earliest start of one of its successors. */
+    private static boolean delaysSuccessor(CSRGraph dag, long[] base, long[] delayed, int u) {
+        for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+            if (delayed[dag.targets[e]] != base[dag.targets[e]]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testTextbookProject() {
+        // 0 -> 1 -> 3 and 0 -> 2 -> 3, with durations on the edges; 2 -> 3 is the short branch
+        CSRGraph dag = CSRGraph.fromEdges(5, new int[]{0, 0, 1, 2, 3, 2}, new int[]{1, 2, 3, 3, 4, 4},
+                new int[]{3, 2, 4, 1, 2, 1}, 6);
+        int[] order = new TopologicalSort(new BasicMetrics()).kahnTopoSort(dag);
+        CriticalPathMethod.Schedule schedule = new CriticalPathMethod(new BasicMetrics()).schedule(dag, order);
+
+        assertEquals(9, schedule.projectDuration);
+        assertArrayEquals(new long[]{0, 3, 2, 7, 9}, schedule.earliestStart);
+        assertArrayEquals(new long[]{0, 3, 6, 7, 9}, schedule.latestStart);
+        assertArrayEquals(new long[]{0, 0, 4, 0, 0}, schedule.totalSlack);
+        // Task 2 finishes at 2 and task 3 needs it by 7 - 1, task 4 by 9 - 1
+        assertArrayEquals(new long[]{0, 0, 4, 0, 0}, schedule.freeSlack);
+        assertArrayEquals(new int[]{0, 1, 3, 4}, schedule.criticalTasks);
+    }
+
+    @Test
+    void testSlackMatchesDelaysOnRandomDags() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            int n = 2 + random.nextInt(60);
+            int m = random.nextInt(4 * n);
+            int[] us = new int[m], vs = new int[m], ws = new int[m];
+            for (int i = 0; i < m; i++) {
+                int a = random.nextInt(n - 1);
+                us[i] = a;
+                vs[i] = a + 1 + random.nextInt(n - 1 - a);
+                ws[i] = random.nextInt(10);
+            }
+            CSRGraph dag = CSRGraph.fromEdges(n, us, vs, ws, m);
+            int[] order = new TopologicalSort(new BasicMetrics()).kahnTopoSort(dag);
+            long[] durations = new long[n];
+            for (int u = 0; u < n; u++) {
+                durations[u] = random.nextBoolean() ? 0 : random.nextInt(5);
+            }
+            CriticalPathMethod.Schedule schedule = new CriticalPathMethod(new BasicMetrics())
+                    .schedule(dag, order, durations);
+
+            long[] base = forward(dag, order, durations, null, -1, 0);
+            assertArrayEquals(base, schedule.earliestStart);
+            assertEquals(finish(base, durations), schedule.projectDuration);
+
+            int critical = 0;
+            for (int u = 0; u < n; u++) {
+                long total = schedule.totalSlack[u];
+                long free = schedule.freeSlack[u];
+                assertEquals(schedule.latestStart[u] - schedule.earliestStart[u], total);
+                assertTrue(free >= 0 && free <= total, "free " + free + " total " + total);
+                if (total == 0) {
+                    critical++;
+                }
+
+                // Total slack is the largest delay that keeps the project duration
+                assertEquals(schedule.projectDuration, finish(forward(dag, order, durations, base, u, total), durations));
+                assertTrue(finish(forward(dag, order, durations, base, u, total + 1), durations) > schedule.projectDuration);
+
+                // Free slack is the largest delay that leaves every successor's earliest start alone
+                assertFalse(delaysSuccessor(dag, base, forward(dag, order, durations, base, u, free), u));
+                long[] late = forward(dag, order, durations, base, u, free + 1);
+                assertTrue(delaysSuccessor(dag, base, late, u) || finish(late, durations) > schedule.projectDuration);
+            }
+            assertEquals(critical, schedule.criticalTasks.length);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package graph;
+
+import graph.io.CsvWriter;
+import org.junit.jupiter.api.Test;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvWriterTest {
+
+    @Test
+    void testNumbersMatchStringFormatting() throws Exception {
+        long[] values = {0, 7, -7, 10, -10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        StringWriter out = new StringWriter();
+        StringBuilder expected = new StringBuilder();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            for (long value : values) {
+                writer.write(value).comma();
+                expected.append(value).append(',');
+            }
+            // Enough rows to cross the internal buffer boundary many times
+            Random random = new Random(5);
+            for (int i = 0; i < 50_000; i++) {
+                long value = random.nextLong() >> random.nextInt(64);
+                writer.write("row").comma().write(value).comma().write(i % 2 == 0).endRow();
+                expected.append("row,").append(value).append(',').append(i % 2 == 0)
+                        .append(System.lineSeparator());
+            }
+        }
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    void testWriteJoined() throws Exception {
+        StringWriter out = new StringWriter();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.write('[').writeJoined(new int[]{4, 5, 6, 7}, 1, 4, ", ").write(']').comma()
+                    .writeJoined(new int[]{1}, 0, 0, " -> ");
+        }
+        assertEquals("[5, 6, 7],", out.toString());
+    }
+}
@@ -0,0 +1,92 @@
+package graph;
+
+import graph.dagsp.DAGShortestPath;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DAGShortestPathTest {
+
+    @Test
+    void testDeepChainBeyondIntRange() {
+        // 0 -> 1 -> ... -> n-1 with weights near Integer.MAX_VALUE, plus a light shortcut 0 -> n-1
+        int n = 200_000;
+        int weight = Integer.MAX_VALUE - 7;
+        int m = n;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < n - 1; i++) {
+            us[i] = i;
+            vs[i] = i + 1;
+            ws[i] = weight;
+        }
+        us[n - 1] = 0;
+        vs[n - 1] = n - 1;
+        ws[n - 1] = 5;
+        CSRGraph chain = CSRGraph.fromEdges(n, us, vs, ws, m);
+        int[] topoOrder = new TopologicalSort(new BasicMetrics()).kahnTopoSort(chain);
+
+        DAGShortestPath paths = new DAGShortestPath(new BasicMetrics());
+        DAGShortestPath.LongResult longest = paths.longestPathLong(chain, topoOrder, 0);
+        DAGShortestPath.LongResult shortest = paths.shortestPathLong(chain, topoOrder, 0);
+
+        assertEquals((long) weight * (n - 1), longest.criticalPathLength);
+        assertEquals(n, longest.criticalPath.length);
+        assertEquals(0, longest.criticalPath[0]);
+        assertEquals(n - 1, longest.criticalPath[n - 1]);
+        assertEquals((long) weight * 1000, longest.distances[1000]);
+        assertEquals(5, shortest.distances[n - 1]);
+        assertEquals((long) weight * (n - 2), shortest.distances[n - 2]);
+    }
+
+    @Test
+    void testUnreachedNodesAndSaturation() {
+        CSRGraph graph = CSRGraph.fromEdges(3, new int[]{1}, new int[]{2}, new int[]{4}, 1);
+        int[] topoOrder = new TopologicalSort(new BasicMetrics()).kahnTopoSort(graph);
+        DAGShortestPath.LongResult longest = new DAGShortestPath(new BasicMetrics()).longestPathLong(graph, topoOrder, 0);
+
+        assertTrue(longest.isReached(0));
+        assertFalse(longest.isReached(2));
+        assertEquals(0, longest.criticalPathLength);
+        assertArrayEquals(new int[]{0}, longest.criticalPath);
+
+        assertEquals(Long.MAX_VALUE - 1, DAGShortestPath.saturatedAdd(Long.MAX_VALUE - 10, Integer.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE + 1, DAGShortestPath.saturatedAdd(Long.MIN_VALUE + 10, Integer.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE - 1, DAGShortestPath.saturatedAdd(Long.MAX_VALUE - 1, 1));
+        assertEquals(-3, DAGShortestPath.saturatedAdd(4, -7));
+    }
+
+    @Test
+    void testFusedSweepMatchesSeparatePasses() {
+        int n = 2_000;
+        Random random = new Random(3);
+        int m = n * 4;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = random.nextInt(n - 1);
+            vs[i] = us[i] + 1 + random.nextInt(Math.min(n - us[i] - 1, 100));
+            ws[i] = random.nextInt(1000) - 100;
+        }
+        CSRGraph dag = CSRGraph.fromEdges(n, us, vs, ws, m);
+        int[] topoOrder = new TopologicalSort(new BasicMetrics()).kahnTopoSort(dag);
+        DAGShortestPath paths = new DAGShortestPath(new BasicMetrics());
+
+        for (int source : new int[]{0, 17, n / 2}) {
+            DAGShortestPath.PathBounds bounds = paths.shortestAndLongestPaths(dag, topoOrder, source);
+            DAGShortestPath.LongResult shortest = paths.shortestPathLong(dag, topoOrder, source);
+            DAGShortestPath.LongResult longest = paths.longestPathLong(dag, topoOrder, source);
+
+            assertArrayEquals(shortest.distances, bounds.shortest().distances);
+            assertArrayEquals(shortest.predecessors, bounds.shortest().predecessors);
+            assertArrayEquals(longest.distances, bounds.longest().distances);
+            assertArrayEquals(longest.predecessors, bounds.longest().predecessors);
+            assertEquals(longest.criticalPathLength, bounds.criticalPathLength());
+            assertArrayEquals(longest.criticalPath, bounds.criticalPath());
+        }
+    }
+}
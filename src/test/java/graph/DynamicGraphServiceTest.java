@@ -0,0 +1,101 @@
+package graph;
+
+import graph.dynamic.DynamicGraphService;
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicGraphServiceTest {
+
+    @Test
+    void testMatchesRecomputationUnderRandomUpdates() {
+        int n = 300;
+        Random random = new Random(5);
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            int u = random.nextInt(n - 1);
+            edges.add(new int[]{u, u + 1 + random.nextInt(Math.min(n - u - 1, 10)), 1 + random.nextInt(5)});
+        }
+        DynamicGraphService service = new DynamicGraphService(toCSR(n, edges), new BasicMetrics());
+
+        for (int round = 0; round < 200; round++) {
+            DynamicGraphService.Batch batch = new DynamicGraphService.Batch();
+            for (int k = 0; k < 5; k++) {
+                if (random.nextInt(3) > 0 || edges.isEmpty()) {
+                    // Mostly forward edges, with back edges that create and grow cycles
+                    int u = random.nextInt(n);
+                    int v = random.nextInt(4) == 0 ? random.nextInt(n) : Math.min(n - 1, u + 1 + random.nextInt(20));
+                    int w = 1 + random.nextInt(5);
+                    batch.add(u, v, w);
+                    edges.add(new int[]{u, v, w});
+                } else {
+                    int[] edge = edges.remove(random.nextInt(edges.size()));
+                    batch.remove(edge[0], edge[1]);
+                }
+            }
+            service.apply(batch);
+            assertConsistent(service, n, edges);
+        }
+    }
+
+    @Test
+    void testCycleMergeAndSplit() {
+        // 0 -> 1 -> 2 -> 3
+        DynamicGraphService service = new DynamicGraphService(
+                CSRGraph.fromEdges(4, new int[]{0, 1, 2}, new int[]{1, 2, 3}, new int[]{1, 1, 1}, 3),
+                new BasicMetrics());
+        assertEquals(4, service.componentCount());
+        assertTrue(service.comesBefore(0, 3));
+
+        service.addEdge(3, 1, 1);
+        assertEquals(2, service.componentCount());
+        assertTrue(service.sameComponent(1, 3));
+        assertTrue(service.comesBefore(0, 2));
+
+        assertFalse(service.removeEdge(3, 0));
+        assertTrue(service.removeEdge(2, 3));
+        assertEquals(4, service.componentCount());
+        assertTrue(service.comesBefore(3, 1));
+        assertTrue(service.comesBefore(1, 2));
+    }
+
+    private static void assertConsistent(DynamicGraphService service, int n, List<int[]> edges) {
+        CSRGraph graph = toCSR(n, edges);
+        SCC.Components expected = new SCC(graph, new BasicMetrics()).findComponents();
+        DynamicGraphService.Snapshot snapshot = service.snapshot();
+
+        assertEquals(edges.size(), snapshot.graph.edgeCount());
+        assertEquals(expected.count, snapshot.components.count);
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                assertEquals(expected.compId[u] == expected.compId[v],
+                        snapshot.components.compId[u] == snapshot.components.compId[v]);
+            }
+        }
+        CSRGraph condensation = snapshot.condensation;
+        assertEquals(Condensation.build(graph, expected).edgeCount(), condensation.edgeCount());
+        assertEquals(condensation.edgeCount(), service.condensationEdgeCount());
+        for (int c = 0; c < condensation.n; c++) {
+            for (int e = condensation.offsets[c]; e < condensation.offsets[c + 1]; e++) {
+                assertTrue(c < condensation.targets[e], "condensation edge against topological numbering");
+            }
+        }
+    }
+
+    private static CSRGraph toCSR(int n, List<int[]> edges) {
+        int m = edges.size();
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = edges.get(i)[0];
+            vs[i] = edges.get(i)[1];
+            ws[i] = edges.get(i)[2];
+        }
+        return CSRGraph.fromEdges(n, us, vs, ws, m);
+    }
+}
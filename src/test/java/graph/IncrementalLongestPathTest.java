@@ -0,0 +1,48 @@
+package graph;
+
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.IncrementalLongestPath;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalLongestPathTest {
+
+    @Test
+    void testMatchesFullRecomputationAfterWeightChanges() {
+        int n = 500;
+        Random random = new Random(9);
+        int m = n * 3;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = random.nextInt(n - 1);
+            vs[i] = us[i] + 1 + random.nextInt(Math.min(n - us[i] - 1, 40));
+            ws[i] = random.nextInt(5);
+        }
+        CSRGraph dag = CSRGraph.fromEdges(n, us, vs, ws, m);
+        int[] topoOrder = new TopologicalSort(new BasicMetrics()).kahnTopoSort(dag);
+        int source = topoOrder[3];
+        int[] originalWeights = dag.weights.clone();
+        IncrementalLongestPath incremental = new IncrementalLongestPath(dag, topoOrder, source, new BasicMetrics());
+        DAGShortestPath full = new DAGShortestPath(new BasicMetrics());
+
+        for (int step = 0; step < 300; step++) {
+            int edge = random.nextInt(m);
+            // Small weights so ties between predecessors are common
+            long length = incremental.setWeight(edge, random.nextInt(8) - 2);
+
+            DAGShortestPath.LongResult expected = full.longestPathLong(incremental.graph(), topoOrder, source);
+            DAGShortestPath.LongResult actual = incremental.toResult();
+            assertEquals(expected.criticalPathLength, length);
+            assertArrayEquals(expected.distances, actual.distances);
+            assertArrayEquals(expected.predecessors, actual.predecessors);
+            assertArrayEquals(expected.criticalPath, actual.criticalPath);
+        }
+        // The input graph keeps its original weights
+        assertArrayEquals(originalWeights, dag.weights);
+    }
+}
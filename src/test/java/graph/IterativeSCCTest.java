@@ -0,0 +1,60 @@
+package graph;
+
+import graph.scc.SCC;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IterativeSCCTest {
+
+    @Test
+    void testDeepChainDoesNotOverflowStack() {
+        // A single 500k-node cycle: 0->1->...->n-1->0
+        int n = 500_000;
+        int[] us = new int[n];
+        int[] vs = new int[n];
+        int[] ws = new int[n];
+        for (int i = 0; i < n; i++) {
+            us[i] = i;
+            vs[i] = (i + 1) % n;
+            ws[i] = 1;
+        }
+        CSRGraph graph = CSRGraph.fromEdges(n, us, vs, ws, n);
+
+        SCC.Components components = new SCC(graph, new BasicMetrics()).findComponents();
+
+        assertEquals(1, components.count);
+        assertEquals(n, components.size(0));
+    }
+
+    @Test
+    void testCompactComponentLayout() {
+        // SCC {0,1,2} -> SCC {3,4} -> SCC {5}
+        int n = 6;
+        List<List<Integer>> adj = new ArrayList<>();
+        for (int i = 0; i < n; i++) adj.add(new ArrayList<>());
+        adj.get(0).add(1);
+        adj.get(1).add(2);
+        adj.get(2).add(0);
+        adj.get(2).add(3);
+        adj.get(3).add(4);
+        adj.get(4).add(3);
+        adj.get(4).add(5);
+
+        SCC.Components components = new SCC(n, adj, new BasicMetrics()).findComponents();
+
+        assertEquals(3, components.count);
+        assertEquals(n, components.offsets[components.count]);
+        for (int c = 0; c < components.count; c++) {
+            for (int i = components.offsets[c]; i < components.offsets[c + 1]; i++) {
+                assertEquals(c, components.compId[components.nodes[i]]);
+            }
+        }
+        assertEquals(components.compId[0], components.compId[2]);
+        assertEquals(components.compId[3], components.compId[4]);
+        assertNotEquals(components.compId[0], components.compId[3]);
+        // Completion order is reverse topological: the sink component finishes first
+        assertEquals(0, components.compId[5]);
+    }
+}
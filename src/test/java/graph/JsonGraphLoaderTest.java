@@ -0,0 +1,49 @@
+package graph;
+
+import graph.io.GraphInput;
+import graph.io.JsonGraphLoader;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonGraphLoaderTest {
+
+    @Test
+    void testMatchesGsonForSortedAndUnsortedEdges() throws Exception {
+        String sorted = "{\"n\": 4, \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 3}, {\"u\": 0, \"v\": 2, \"w\": 1}," +
+                " {\"u\": 2, \"v\": 3, \"w\": 7}], \"source\": 2, \"weightModel\": \"edge\"}";
+        String unsorted = "{\"edges\": [{\"u\": 2, \"v\": 3, \"w\": 7}, {\"w\": 3, \"v\": 1, \"u\": 0}," +
+                " {\"u\": 0, \"v\": 2, \"w\": 1}], \"n\": 4, \"extra\": [1, 2], \"source\": 2, \"weightModel\": \"edge\"}";
+
+        for (String json : new String[]{sorted, unsorted}) {
+            GraphInput input = JsonGraphLoader.load(new StringReader(json));
+            CSRGraph expected = new Gson().fromJson(json, GraphData.class).buildCSRGraph();
+
+            assertEquals(4, input.n);
+            assertEquals(2, input.source);
+            assertEquals("edge", input.weightModel);
+            assertArrayEquals(expected.offsets, input.graph.offsets);
+            assertArrayEquals(expected.targets, input.graph.targets);
+            assertArrayEquals(expected.weights, input.graph.weights);
+        }
+    }
+
+    @Test
+    void testRejectsEdgeOutsideNodeRange() {
+        String json = "{\"n\": 2, \"edges\": [{\"u\": 0, \"v\": 5, \"w\": 1}]}";
+        assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(new StringReader(json)));
+    }
+
+    @Test
+    void testRejectsHugeNodeIdsBeforeAllocating() {
+        // Checked against n as the edge arrives, not after the degree array has grown to the id
+        String huge = "{\"n\": 2, \"edges\": [{\"u\": 1000000000, \"v\": 0, \"w\": 1}]}";
+        assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(new StringReader(huge)));
+
+        String max = "{\"edges\": [{\"u\": " + Integer.MAX_VALUE + ", \"v\": 0, \"w\": 1}], \"n\": 2}";
+        assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(new StringReader(max)));
+    }
+}
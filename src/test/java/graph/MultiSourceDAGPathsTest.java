@@ -0,0 +1,44 @@
+package graph;
+
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.MultiSourceDAGPaths;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiSourceDAGPathsTest {
+
+    @Test
+    void testMatchesSingleSourceRuns() {
+        int n = 300;
+        Random random = new Random(11);
+        int m = n * 3;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = random.nextInt(n - 1);
+            vs[i] = us[i] + 1 + random.nextInt(Math.min(n - us[i] - 1, 30));
+            ws[i] = 1 + random.nextInt(9);
+        }
+        CSRGraph dag = CSRGraph.fromEdges(n, us, vs, ws, m);
+        int[] topoOrder = new TopologicalSort(new BasicMetrics()).kahnTopoSort(dag);
+
+        // 21 sources: two full blocks and a partial one
+        int[] sources = new int[21];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = i * 13;
+        }
+        MultiSourceDAGPaths paths = new MultiSourceDAGPaths(dag, topoOrder, 3, new BasicMetrics());
+        MultiSourceDAGPaths.Matrix shortest = paths.shortestPaths(sources);
+        MultiSourceDAGPaths.Matrix longest = paths.longestPaths(sources);
+
+        DAGShortestPath single = new DAGShortestPath(new BasicMetrics());
+        for (int i = 0; i < sources.length; i++) {
+            assertArrayEquals(single.shortestPathLong(dag, topoOrder, sources[i]).distances, shortest.row(i));
+            assertArrayEquals(single.longestPathLong(dag, topoOrder, sources[i]).distances, longest.row(i));
+        }
+    }
+}
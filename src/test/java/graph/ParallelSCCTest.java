@@ -0,0 +1,79 @@
+package graph;
+
+import graph.scc.ParallelSCC;
+import graph.scc.SCC;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSCCTest {
+
+    @Test
+    void testSamePartitionAsTarjan() {
+        // Large enough that forward-backward splitting runs before the Tarjan cut-off
+        for (long seed = 1; seed <= 3; seed++) {
+            CSRGraph graph = randomBlockGraph(60_000, seed);
+
+            SCC.Components expected = new SCC(graph, new BasicMetrics()).findComponents();
+            SCC.Components actual = new ParallelSCC(graph, 4, new BasicMetrics()).findComponents();
+
+            assertEquals(expected.count, actual.count);
+            assertArrayEquals(smallestMember(expected), smallestMember(actual));
+        }
+    }
+
+    @Test
+    void testLongChainOfSmallCycles() {
+        // 20,000 two-node cycles in a line: trimming removes nothing and every split peels one cycle
+        int cycles = 20_000;
+        int n = 2 * cycles;
+        int m = 3 * cycles - 1;
+        int[] us = new int[m], vs = new int[m], ws = new int[m];
+        int k = 0;
+        for (int i = 0; i < cycles; i++) {
+            us[k] = 2 * i; vs[k++] = 2 * i + 1;
+            us[k] = 2 * i + 1; vs[k++] = 2 * i;
+            if (i + 1 < cycles) {
+                us[k] = 2 * i + 1; vs[k++] = 2 * i + 2;
+            }
+        }
+        CSRGraph graph = CSRGraph.fromEdges(n, us, vs, ws, m);
+
+        SCC.Components expected = new SCC(graph, new BasicMetrics()).findComponents();
+        SCC.Components actual = new ParallelSCC(graph, 4, new BasicMetrics()).findComponents();
+
+        assertEquals(cycles, actual.count);
+        assertArrayEquals(smallestMember(expected), smallestMember(actual));
+    }
+
+    private static int[] smallestMember(SCC.Components components) {
+        int[] min = new int[components.count];
+        Arrays.fill(min, Integer.MAX_VALUE);
+        for (int v = 0; v < components.compId.length; v++) {
+            min[components.compId[v]] = Math.min(min[components.compId[v]], v);
+        }
+        int[] result = new int[components.compId.length];
+        for (int v = 0; v < result.length; v++) {
+            result[v] = min[components.compId[v]];
+        }
+        return result;
+    }
+
+    private static CSRGraph randomBlockGraph(int n, long seed) {
+        Random random = new Random(seed);
+        int m = n * 3;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n);
+            // Mostly forward edges with some back edges, giving a mix of SCC sizes
+            int v = random.nextInt(10) == 0 ? random.nextInt(n) : Math.min(n - 1, u + 1 + random.nextInt(50));
+            us[i] = u;
+            vs[i] = v;
+            ws[i] = 1;
+        }
+        return CSRGraph.fromEdges(n, us, vs, ws, m);
+    }
+}
@@ -0,0 +1,54 @@
+package graph;
+
+import graph.topo.ParallelTopologicalSort;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelTopologicalSortTest {
+
+    @Test
+    void testWavesAreLongestPathLevels() {
+        // Wide random DAG so several waves exceed the frontier split size
+        int n = 50_000;
+        Random random = new Random(7);
+        int m = n * 4;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n - 1);
+            us[i] = u;
+            vs[i] = u + 1 + random.nextInt(Math.min(n - u - 1, 20_000));
+            ws[i] = 1;
+        }
+        CSRGraph dag = CSRGraph.fromEdges(n, us, vs, ws, m);
+
+        ParallelTopologicalSort.Waves waves = new ParallelTopologicalSort(dag, 4, new BasicMetrics()).sort();
+
+        assertEquals(n, waves.order.length);
+        assertEquals(n, waves.waveOffsets[waves.count()]);
+        // A node's wave is the number of edges on the longest path ending at it
+        int[] level = new int[n];
+        for (int u = 0; u < n; u++) {
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                level[dag.targets[e]] = Math.max(level[dag.targets[e]], level[u] + 1);
+            }
+        }
+        assertArrayEquals(level, waves.waveOf());
+        for (int k = 0; k < waves.count(); k++) {
+            for (int i = waves.waveOffsets[k] + 1; i < waves.waveOffsets[k + 1]; i++) {
+                assertTrue(waves.order[i - 1] < waves.order[i]);
+            }
+        }
+    }
+
+    @Test
+    void testRejectsCycle() {
+        CSRGraph cyclic = CSRGraph.fromEdges(3, new int[]{0, 1, 2}, new int[]{1, 2, 1},
+                new int[]{1, 1, 1}, 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelTopologicalSort(cyclic, 2, new BasicMetrics()).sort());
+    }
+}
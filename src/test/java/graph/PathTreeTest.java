@@ -0,0 +1,54 @@
+package graph;
+
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.PathTree;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathTreeTest {
+
+    @Test
+    void testMatchesEagerReconstruction() throws Exception {
+        Random random = new Random(11);
+        int n = 300;
+        int m = 1200;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            us[i] = Math.min(a, b);
+            vs[i] = Math.max(a, b) == us[i] ? Math.min(n - 1, us[i] + 1) : Math.max(a, b);
+            ws[i] = 1 + random.nextInt(20);
+        }
+        CSRGraph dag = CSRGraph.fromEdges(n, us, vs, ws, m);
+        int[] topoOrder = new TopologicalSort(new BasicMetrics()).kahnTopoSort(dag);
+        DAGShortestPath.LongResult longest = new DAGShortestPath(new BasicMetrics())
+                .longestPathLong(dag, topoOrder, topoOrder[0]);
+
+        PathTree tree = longest.pathTree();
+        for (int v = 0; v < n; v++) {
+            int[] expected = DAGShortestPath.reconstructPathArray(longest.predecessors, v);
+            assertArrayEquals(expected, tree.path(v));
+            assertEquals(expected.length, tree.view(v).length());
+
+            StringBuilder text = new StringBuilder();
+            tree.appendPath(v, " -> ", text);
+            StringBuilder joined = new StringBuilder();
+            for (int i = 0; i < expected.length; i++) {
+                joined.append(i > 0 ? " -> " : "").append(expected[i]);
+            }
+            assertEquals(joined.toString(), text.toString());
+        }
+
+        assertTrue(tree.isPath(longest.criticalPath));
+        int[] altered = longest.criticalPath.clone();
+        altered[0] = altered[0] == 0 ? 1 : 0;
+        assertFalse(tree.isPath(altered));
+        assertFalse(tree.isPath(new int[0]));
+    }
+}
@@ -0,0 +1,33 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseMetricsTest {
+
+    @Test
+    void testPhasesCountIndependentlyAcrossThreads() {
+        PhaseMetrics metrics = new PhaseMetrics();
+        Metrics scc = metrics.forPhase(PhaseMetrics.Phase.SCC);
+        Metrics topo = metrics.forPhase(PhaseMetrics.Phase.TOPO);
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            scc.incrementOperationCount();
+            if (i % 2 == 0) {
+                topo.incrementOperationCount();
+            }
+        });
+        PhaseMetrics.Timer timer = metrics.start(PhaseMetrics.Phase.LOAD);
+        assertEquals(0, metrics.getTimeNanos(PhaseMetrics.Phase.LOAD));
+        timer.stop();
+
+        assertEquals(10_000, metrics.getOperationCount(PhaseMetrics.Phase.SCC));
+        assertEquals(5_000, metrics.getOperationCount(PhaseMetrics.Phase.TOPO));
+        assertEquals(0, metrics.getOperationCount(PhaseMetrics.Phase.PATHS));
+        assertEquals(15_000, metrics.getTotalOperationCount());
+        assertTrue(metrics.getTimeNanos(PhaseMetrics.Phase.LOAD) > 0);
+        assertEquals(metrics.getTimeNanos(PhaseMetrics.Phase.LOAD), metrics.getTotalTimeNanos());
+    }
+}
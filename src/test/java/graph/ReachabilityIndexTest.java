@@ -0,0 +1,74 @@
+package graph;
+
+import graph.gen.SyntheticGraphGenerator;
+import graph.reach.ReachabilityIndex;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityIndexTest {
+
+    private static boolean bfs(CSRGraph graph, int from, int to) {
+        boolean[] seen = new boolean[graph.n];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(from);
+        seen[from] = true;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (u == to) return true;
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                if (!seen[graph.targets[e]]) {
+                    seen[graph.targets[e]] = true;
+                    queue.add(graph.targets[e]);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void checkAgainstBfs(CSRGraph graph, int queries, long seed) {
+        ReachabilityIndex index = ReachabilityIndex.build(graph, new BasicMetrics());
+        Random random = new Random(seed);
+        int positives = 0;
+        for (int q = 0; q < queries; q++) {
+            int from = random.nextInt(graph.n);
+            // Bias towards nearby ids so both answers occur often
+            int to = random.nextBoolean() ? random.nextInt(graph.n)
+                    : Math.min(graph.n - 1, from + random.nextInt(2000));
+            boolean expected = bfs(graph, from, to);
+            assertEquals(expected, index.reaches(from, to), from + " -> " + to);
+            if (expected) positives++;
+        }
+        assertTrue(positives > 0 && positives < queries);
+    }
+
+    @Test
+    void testSmallGraphUsesClosure() {
+        Random random = new Random(9);
+        int n = 2000;
+        int m = 4000;
+        int[] us = new int[m], vs = new int[m], ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = random.nextInt(n);
+            // Mostly forward edges with some back edges, so there are cycles of several sizes
+            vs[i] = random.nextInt(10) == 0 ? random.nextInt(n) : Math.min(n - 1, us[i] + 1 + random.nextInt(50));
+            ws[i] = 1;
+        }
+        checkAgainstBfs(CSRGraph.fromEdges(n, us, vs, ws, m), 3000, 1);
+    }
+
+    @Test
+    void testLargeGraphUsesLabels() throws Exception {
+        SyntheticGraphGenerator.Config config = new SyntheticGraphGenerator.Config();
+        config.nodes = 60_000;
+        config.edges = 150_000;
+        config.layers = 300;
+        config.maxSccSize = 20;
+        config.threads = 1;
+        CSRGraph graph = new SyntheticGraphGenerator(config).generate().graph;
+        ReachabilityIndex index = ReachabilityIndex.build(graph, new BasicMetrics());
+        assertTrue(index.componentCount() > 8192);
+        checkAgainstBfs(graph, 400, 2);
+    }
+}
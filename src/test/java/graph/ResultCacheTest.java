@@ -0,0 +1,155 @@
+package graph;
+
+import graph.gen.SyntheticGraphGenerator;
+import graph.io.GraphInput;
+import org.junit.jupiter.api.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("result-cache");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private Path graph(String name, long seed) throws IOException {
+        SyntheticGraphGenerator.Config config = new SyntheticGraphGenerator.Config();
+        config.nodes = 4000;
+        config.edges = 16_000;
+        config.layers = 20;
+        config.maxSccSize = 10;
+        config.seed = seed;
+        config.threads = 1;
+        Path file = directory.resolve(name);
+        new SyntheticGraphGenerator(config).write(file);
+        return file;
+    }
+
+    private static Main.Analysis analyze(Path file, Main.Options options) throws IOException {
+        return Main.analyze(GraphInput.load(file), options, new PhaseMetrics(),
+                new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    void testRoundTripRestoresEveryArray() throws IOException {
+        Main.Options options = Main.Options.parse(new String[]{"--topo=parallel", "--sources=0,7,99"}, 0);
+        Path file = graph("a.bin", 1);
+        Main.Analysis expected = analyze(file, options);
+        ResultCache cache = new ResultCache(directory.resolve("cache"));
+
+        ResultCache.Lookup miss = cache.lookup(file, "a", options);
+        assertFalse(miss.cached);
+        assertNull(miss.current);
+        cache.store(miss, expected);
+
+        ResultCache.Lookup hit = cache.lookup(file, "a", options);
+        assertEquals(miss.key, hit.key);
+        assertTrue(hit.cached);
+        Main.Analysis restored = cache.load(hit);
+
+        assertEquals(expected.input.n, restored.input.n);
+        assertEquals(expected.input.source, restored.input.source);
+        assertEquals(expected.input.weightModel, restored.input.weightModel);
+        assertArrayEquals(expected.input.graph.offsets, restored.input.graph.offsets);
+        assertArrayEquals(expected.input.graph.targets, restored.input.graph.targets);
+        assertArrayEquals(expected.input.graph.weights, restored.input.graph.weights);
+        assertEquals(expected.components.count, restored.components.count);
+        assertArrayEquals(expected.components.compId, restored.components.compId);
+        assertArrayEquals(expected.components.nodes, restored.components.nodes);
+        assertArrayEquals(expected.condensation.offsets, restored.condensation.offsets);
+        assertArrayEquals(expected.condensation.targets, restored.condensation.targets);
+        assertArrayEquals(expected.condensation.weights, restored.condensation.weights);
+        assertArrayEquals(expected.topoOrder, restored.topoOrder);
+        assertArrayEquals(expected.waves.waveOffsets, restored.waves.waveOffsets);
+        assertEquals(expected.source, restored.source);
+        assertArrayEquals(expected.shortest.distances, restored.shortest.distances);
+        assertArrayEquals(expected.shortest.predecessors, restored.shortest.predecessors);
+        assertArrayEquals(expected.longest.distances, restored.longest.distances);
+        assertArrayEquals(expected.longest.predecessors, restored.longest.predecessors);
+        assertEquals(expected.longest.criticalPathLength, restored.longest.criticalPathLength);
+        assertArrayEquals(expected.longest.criticalPath, restored.longest.criticalPath);
+        assertEquals(expected.schedule.projectDuration, restored.schedule.projectDuration);
+        assertArrayEquals(expected.schedule.latestStart, restored.schedule.latestStart);
+        assertArrayEquals(expected.schedule.freeSlack, restored.schedule.freeSlack);
+        assertArrayEquals(expected.schedule.criticalTasks, restored.schedule.criticalTasks);
+        assertArrayEquals(expected.shortestMatrix.sources, restored.shortestMatrix.sources);
+        assertArrayEquals(expected.shortestMatrix.distances, restored.shortestMatrix.distances);
+        assertArrayEquals(expected.longestMatrix.distances, restored.longestMatrix.distances);
+        assertEquals(expected.metrics.getOperationCount(PhaseMetrics.Phase.SCC),
+                restored.metrics.getOperationCount(PhaseMetrics.Phase.SCC));
+        assertEquals(expected.metrics.getTimeNanos(PhaseMetrics.Phase.PATHS),
+                restored.metrics.getTimeNanos(PhaseMetrics.Phase.PATHS));
+    }
+
+    @Test
+    void testKeyFollowsContentAndResultOptions() throws IOException {
+        Main.Options options = Main.Options.parse(new String[0], 0);
+        Path a = graph("a.bin", 1);
+        Path copy = Files.copy(a, directory.resolve("copy.bin"));
+        Path b = graph("b.bin", 2);
+        ResultCache cache = new ResultCache(directory.resolve("cache"));
+
+        String key = cache.lookup(a, "a", options).key;
+        assertEquals(key, cache.lookup(copy, "copy", options).key);
+        assertNotEquals(key, cache.lookup(b, "b", options).key);
+        assertEquals(key, cache.lookup(a, "a",
+                Main.Options.parse(new String[]{"--threads=3", "--output=columnar", "--compress=gzip"}, 0)).key);
+        assertNotEquals(key, cache.lookup(a, "a", Main.Options.parse(new String[]{"--scc=parallel"}, 0)).key);
+        assertNotEquals(key, cache.lookup(a, "a", Main.Options.parse(new String[]{"--sources=all"}, 0)).key);
+    }
+
+    @Test
+    void testDamagedEntriesFailAndUnreferencedEntriesArePruned() throws IOException {
+        Main.Options options = Main.Options.parse(new String[0], 0);
+        Path file = graph("a.bin", 1);
+        Path root = directory.resolve("cache");
+        ResultCache cache = new ResultCache(root);
+        ResultCache.Lookup lookup = cache.lookup(file, "a", options);
+        cache.store(lookup, analyze(file, options));
+
+        Path column = root.resolve(lookup.key).resolve("longest_distance.i64");
+        byte[] bytes = Files.readAllBytes(column);
+        bytes[3] ^= 1;
+        Files.write(column, bytes);
+        assertThrows(IOException.class, () -> cache.load(lookup));
+
+        assertEquals(1, cache.prune());
+        assertFalse(cache.lookup(file, "a", options).cached);
+    }
+
+    @Test
+    void testConcurrentStoresOfOneKeyBothSucceed() throws IOException {
+        Main.Options options = Main.Options.parse(new String[0], 0);
+        Path file = graph("a.bin", 1);
+        Path root = directory.resolve("cache");
+        ResultCache cache = new ResultCache(root);
+        ResultCache.Lookup lookup = cache.lookup(file, "a", options);
+        cache.store(lookup, analyze(file, options));
+
+        // A second job that finished writing after the first one moved its entry into place
+        Path target = root.resolve(lookup.key);
+        Path late = Files.createTempDirectory(root, lookup.key + ".tmp");
+        Files.write(late.resolve("analysis.json"), new byte[]{'{', '}'});
+        ResultCache.moveIntoPlace(late, target);
+
+        assertTrue(Files.isDirectory(late));
+        assertTrue(cache.lookup(file, "a", options).cached);
+        assertNotNull(cache.load(lookup));
+
+        Path missingParent = directory.resolve("missing").resolve("entry");
+        assertThrows(IOException.class, () -> ResultCache.moveIntoPlace(late, missingParent));
+    }
+}
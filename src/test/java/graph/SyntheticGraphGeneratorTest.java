@@ -0,0 +1,80 @@
+package graph;
+
+import graph.gen.SyntheticGraphGenerator;
+import graph.io.GraphInput;
+import graph.scc.Condensation;
+import graph.scc.SCC;
+import graph.topo.ParallelTopologicalSort;
+import org.junit.jupiter.api.Test;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticGraphGeneratorTest {
+
+    private static SyntheticGraphGenerator.Config config(int threads) {
+        SyntheticGraphGenerator.Config config = new SyntheticGraphGenerator.Config();
+        config.nodes = 50_000;
+        config.edges = 300_000;
+        config.layers = 20;
+        config.maxSccSize = 50;
+        config.maxDegree = 500;
+        config.weightAlpha = 2.0;
+        config.maxWeight = 100;
+        config.threads = threads;
+        return config;
+    }
+
+    @Test
+    void testStructureAndReproducibility() throws Exception {
+        SyntheticGraphGenerator generator = new SyntheticGraphGenerator(config(1));
+        GraphInput graph = generator.generate();
+        GraphInput parallel = new SyntheticGraphGenerator(config(4)).generate();
+
+        assertArrayEquals(graph.graph.offsets, parallel.graph.offsets);
+        assertArrayEquals(graph.graph.targets, parallel.graph.targets);
+        assertArrayEquals(graph.graph.weights, parallel.graph.weights);
+
+        int m = graph.edgeCount();
+        assertTrue(m > 250_000 && m < 350_000, "edge count " + m);
+        Set<Long> edges = new HashSet<>();
+        for (int u = 0; u < graph.n; u++) {
+            for (int e = graph.graph.offsets[u]; e < graph.graph.offsets[u + 1]; e++) {
+                assertNotEquals(u, graph.graph.targets[e]);
+                assertTrue(edges.add((long) u << 32 | graph.graph.targets[e]), "duplicate edge");
+                int w = graph.graph.weights[e];
+                assertTrue(w >= 1 && w <= 100);
+            }
+        }
+
+        // Clusters are exactly the SCCs, and the condensation is layered
+        SCC.Components components = new SCC(graph.graph, new BasicMetrics()).findComponents();
+        assertEquals(generator.clusterCount(), components.count);
+        CSRGraph condensation = Condensation.build(graph.graph, components);
+        ParallelTopologicalSort.Waves waves = new ParallelTopologicalSort(condensation, 2, new BasicMetrics()).sort();
+        assertTrue(waves.count() <= generator.layerCount(), waves.count() + " waves");
+    }
+
+    @Test
+    void testStreamedFilesMatchInMemoryGraph() throws Exception {
+        SyntheticGraphGenerator generator = new SyntheticGraphGenerator(config(2));
+        GraphInput expected = generator.generate();
+        for (String extension : new String[]{".json", ".bin"}) {
+            Path file = Files.createTempFile("synthetic", extension);
+            try {
+                SyntheticGraphGenerator.Stats stats = generator.write(file);
+                GraphInput loaded = GraphInput.load(file);
+                assertEquals(expected.edgeCount(), stats.edges);
+                assertEquals(expected.n, loaded.n);
+                assertEquals("edge", loaded.weightModel);
+                assertArrayEquals(expected.graph.offsets, loaded.graph.offsets);
+                assertArrayEquals(expected.graph.targets, loaded.graph.targets);
+                assertArrayEquals(expected.graph.weights, loaded.graph.weights);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
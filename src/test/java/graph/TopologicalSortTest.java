@@ -34,4 +34,28 @@ class TopologicalSortTest {
         assertTrue(index1 < index2);
         assertTrue(index0 < index3);
     }
+
+    @Test
+    void testCSROrderAndCycleDetection() {
+        CSRGraph dag = CSRGraph.fromEdges(5, new int[]{3, 0, 0, 1, 4}, new int[]{1, 1, 3, 2, 0},
+                new int[]{1, 1, 1, 1, 1}, 5);
+        int[] order = new TopologicalSort(new BasicMetrics()).kahnTopoSort(dag);
+
+        assertEquals(5, order.length);
+        int[] position = new int[5];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int u = 0; u < dag.n; u++) {
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                assertTrue(position[u] < position[dag.targets[e]]);
+            }
+        }
+
+        // 0 -> 1 -> 2 -> 1
+        CSRGraph cyclic = CSRGraph.fromEdges(3, new int[]{0, 1, 2}, new int[]{1, 2, 1},
+                new int[]{1, 1, 1}, 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> new TopologicalSort(new BasicMetrics()).kahnTopoSort(cyclic));
+    }
 }
\ No newline at end of file